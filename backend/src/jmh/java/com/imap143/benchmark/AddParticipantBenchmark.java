@@ -0,0 +1,75 @@
+package com.imap143.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imap143.api.dto.request.CreateRoomRequest;
+import com.imap143.application.service.ChatRoomRegistry;
+import com.imap143.application.service.ChatRoomService;
+import com.imap143.application.service.MessageFanout;
+import com.imap143.application.service.WebRTCService;
+import com.imap143.application.service.WebSocketSessionService;
+import com.imap143.domain.repository.ChatRoomRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Join signaling for a room of N peers: the JOINED delta, the joiner's roster, then the LEAVE broadcast
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AddParticipantBenchmark {
+
+    private static final int FLUSH_EVERY_MASK = 1023;
+
+    @Param({"2", "6", "12", "25", "50"})
+    private int roomSize;
+
+    private ChatRoomRegistry chatRoomRegistry;
+    private WebRTCService webRTCService;
+    private String roomId;
+    private long operations;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ChatRoomRepository repository = BenchmarkFixtures.inMemoryChatRoomRepository();
+        chatRoomRegistry = new ChatRoomRegistry(repository);
+        var messagingTemplate = BenchmarkFixtures.discardingTemplate(objectMapper);
+        MessageFanout messageFanout = new MessageFanout(messagingTemplate, objectMapper);
+        ChatRoomService chatRoomService = new ChatRoomService(repository, chatRoomRegistry, messageFanout);
+
+        // Message history and ICE batching are not on the join path
+        webRTCService = new WebRTCService(
+            messagingTemplate,
+            chatRoomService,
+            null,
+            new WebSocketSessionService(),
+            null,
+            messageFanout,
+            new SimpleMeterRegistry());
+
+        CreateRoomRequest request = new CreateRoomRequest();
+        request.setName("benchmark");
+        roomId = chatRoomService.createRoom(request, "user-0").getId();
+        BenchmarkFixtures.userIds("user-", roomSize).forEach(userId -> chatRoomService.joinRoom(roomId, userId));
+    }
+
+    @Benchmark
+    public String joinAndLeave() {
+        webRTCService.addParticipant(roomId, "joiner");
+        webRTCService.removeParticipant(roomId, "joiner");
+        if ((++operations & FLUSH_EVERY_MASK) == 0) {
+            chatRoomRegistry.flush();
+        }
+        return roomId;
+    }
+}
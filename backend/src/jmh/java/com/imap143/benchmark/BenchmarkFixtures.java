@@ -0,0 +1,51 @@
+package com.imap143.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imap143.domain.repository.ChatRoomRepository;
+import com.imap143.domain.repository.inmemory.InMemoryChatRoomRepository;
+
+// Stand-ins for MongoDB and the broker channel so benchmarks measure only the service code
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static ChatRoomRepository inMemoryChatRoomRepository() {
+        return new InMemoryChatRoomRepository();
+    }
+
+    // Template whose broker channel accepts and discards every message
+    static SimpMessagingTemplate discardingTemplate(ObjectMapper objectMapper) {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> true);
+        template.setMessageConverter(converter);
+        return template;
+    }
+
+    // Stands in for @Value injection on services built outside Spring
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + name + " on " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    static List<String> userIds(String prefix, int count) {
+        List<String> userIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            userIds.add(prefix + i);
+        }
+        return userIds;
+    }
+}
@@ -0,0 +1,71 @@
+package com.imap143.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imap143.api.dto.request.CreateRoomRequest;
+import com.imap143.api.dto.response.ChatRoomResponse;
+import com.imap143.application.service.ChatRoomRegistry;
+import com.imap143.application.service.ChatRoomService;
+import com.imap143.application.service.MessageFanout;
+import com.imap143.domain.repository.ChatRoomRepository;
+
+// One user joining and leaving a room of N participants, against the in-memory registry and repository
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChatRoomBenchmark {
+
+    private static final int FLUSH_EVERY_MASK = 1023;
+
+    @Param({"2", "10", "50"})
+    private int roomSize;
+
+    private ChatRoomRegistry chatRoomRegistry;
+    private ChatRoomService chatRoomService;
+    private String roomId;
+    private List<String> leaver;
+    private long operations;
+
+    @Setup
+    public void setUp() {
+        ChatRoomRepository repository = BenchmarkFixtures.inMemoryChatRoomRepository();
+        chatRoomRegistry = new ChatRoomRegistry(repository);
+        ObjectMapper objectMapper = new ObjectMapper();
+        // Roster events are encoded and handed to a broker channel that drops them, as in AddParticipantBenchmark
+        MessageFanout messageFanout = new MessageFanout(BenchmarkFixtures.discardingTemplate(objectMapper), objectMapper);
+        chatRoomService = new ChatRoomService(repository, chatRoomRegistry, messageFanout);
+
+        CreateRoomRequest request = new CreateRoomRequest();
+        request.setName("benchmark");
+        roomId = chatRoomService.createRoom(request, "user-0").getId();
+        BenchmarkFixtures.userIds("user-", roomSize).forEach(userId -> chatRoomService.joinRoom(roomId, userId));
+        leaver = List.of("joiner");
+    }
+
+    @Benchmark
+    public ChatRoomResponse joinAndLeave() {
+        chatRoomService.joinRoom(roomId, "joiner");
+        ChatRoomResponse room = chatRoomService.removeFromActiveParticipants(roomId, leaver);
+        // Stands in for the scheduled write-behind flush so the change queue stays bounded
+        if ((++operations & FLUSH_EVERY_MASK) == 0) {
+            chatRoomRegistry.flush();
+        }
+        return room;
+    }
+
+    @Benchmark
+    public ChatRoomResponse getRoom() {
+        return chatRoomService.getRoom(roomId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.imap143.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imap143.application.dto.ChatMessageDto;
+import com.imap143.application.dto.MediaStatusDto;
+import com.imap143.application.service.MessageFanout;
+import com.imap143.domain.entity.ChatMessage;
+
+// Cost of one media-status broadcast as the room grows; run with -prof gc for bytes allocated per op
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FanoutBenchmark {
+
+    @Param({"2", "6", "12", "25", "50"})
+    private int roomSize;
+
+    private SimpMessagingTemplate messagingTemplate;
+    private MessageFanout messageFanout;
+    private List<String> destinations;
+    private ChatMessageDto.SignalRequest<MediaStatusDto> signal;
+    private Message<?> lastMessage;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+
+        // The broker channel is replaced by a sink, so only serialization and message building are measured
+        messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+            lastMessage = message;
+            return true;
+        });
+        messagingTemplate.setMessageConverter(converter);
+        messageFanout = new MessageFanout(messagingTemplate, objectMapper);
+
+        destinations = new ArrayList<>();
+        for (int i = 0; i < roomSize; i++) {
+            destinations.add("/queue/signal.user-" + i);
+        }
+
+        MediaStatusDto mediaStatus = new MediaStatusDto();
+        mediaStatus.setUserId("user-0");
+        mediaStatus.setAudioEnabled(true);
+        mediaStatus.setVideoEnabled(false);
+        signal = new ChatMessageDto.SignalRequest<>();
+        signal.setType(ChatMessage.MessageType.MEDIA_STATUS);
+        signal.setRoomId("room-1");
+        signal.setSenderId("user-0");
+        signal.setSignal(mediaStatus);
+    }
+
+    @Benchmark
+    public Message<?> convertAndSendPerRecipient() {
+        for (String destination : destinations) {
+            messagingTemplate.convertAndSend(destination, signal);
+        }
+        return lastMessage;
+    }
+
+    @Benchmark
+    public Message<?> serializeOnceFanout() {
+        messageFanout.send(destinations, signal);
+        return lastMessage;
+    }
+}
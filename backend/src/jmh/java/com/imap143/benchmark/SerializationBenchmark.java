@@ -0,0 +1,89 @@
+package com.imap143.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imap143.api.dto.response.ChatMessageResponse;
+import com.imap143.application.dto.ChatMessageDto;
+import com.imap143.application.dto.SessionDescriptionDto;
+import com.imap143.domain.entity.ChatMessage;
+
+// JSON cost of the two payloads on the hottest paths: room chat broadcasts and SDP signaling
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ChatMessageResponse chatMessage;
+    private ChatMessageDto.SignalRequest<SessionDescriptionDto> offer;
+    private JavaType offerType;
+    private byte[] chatMessageJson;
+    private byte[] offerJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+
+        chatMessage = new ChatMessageResponse();
+        chatMessage.setId("6650f1c2a9e4b3d2c1f0e9a8");
+        chatMessage.setRoomId("3f2b7c1e-8a4d-4e0b-9b61-2f6c0d9e5a10");
+        chatMessage.setSenderId("user-1");
+        chatMessage.setSenderName("Benchmark User");
+        chatMessage.setContent("Can everyone hear me? Switching to the other microphone now.");
+        chatMessage.setType(ChatMessage.MessageType.CHAT);
+        chatMessage.setTimestamp(1_717_000_000_000L);
+        chatMessage.setSequence(42);
+
+        SessionDescriptionDto description = new SessionDescriptionDto();
+        description.setType("offer");
+        description.setSdp("v=0\r\no=- 4611731400430051336 2 IN IP4 127.0.0.1\r\ns=-\r\nt=0 0\r\n"
+            + "a=group:BUNDLE 0 1\r\nm=audio 9 UDP/TLS/RTP/SAVPF 111 63 9 0 8 13 110 126\r\n"
+            + "c=IN IP4 0.0.0.0\r\na=ice-ufrag:EsAw\r\na=ice-pwd:P2uYro0UCOQ4zxjKXaWCBui1\r\n"
+            + "a=fingerprint:sha-256 D2:FA:0E:C3:22:59:5E:14:95:69:92:3D:13:B4:84:24:2C:C2:A2:C0:3E:FD:34:8E:5E:EA:6F:AF:52:CE:E6:0F\r\n"
+            + "a=setup:actpass\r\na=mid:0\r\na=sendrecv\r\na=rtpmap:111 opus/48000/2\r\n"
+            + "m=video 9 UDP/TLS/RTP/SAVPF 96 97 102 103\r\nc=IN IP4 0.0.0.0\r\na=mid:1\r\na=sendrecv\r\n"
+            + "a=rtpmap:96 VP8/90000\r\na=rtpmap:102 H264/90000\r\n");
+        offer = new ChatMessageDto.SignalRequest<>();
+        offer.setType(ChatMessage.MessageType.OFFER);
+        offer.setRoomId(chatMessage.getRoomId());
+        offer.setSenderId("user-1");
+        offer.setTargetId("user-2");
+        offer.setSignal(description);
+        offerType = objectMapper.getTypeFactory()
+            .constructParametricType(ChatMessageDto.SignalRequest.class, SessionDescriptionDto.class);
+
+        chatMessageJson = objectMapper.writeValueAsBytes(chatMessage);
+        offerJson = objectMapper.writeValueAsBytes(offer);
+    }
+
+    @Benchmark
+    public byte[] writeChatMessage() throws IOException {
+        return objectMapper.writeValueAsBytes(chatMessage);
+    }
+
+    @Benchmark
+    public ChatMessageResponse readChatMessage() throws IOException {
+        return objectMapper.readValue(chatMessageJson, ChatMessageResponse.class);
+    }
+
+    @Benchmark
+    public byte[] writeSignalRequest() throws IOException {
+        return objectMapper.writeValueAsBytes(offer);
+    }
+
+    @Benchmark
+    public Object readSignalRequest() throws IOException {
+        return objectMapper.readValue(offerJson, offerType);
+    }
+}
@@ -0,0 +1,78 @@
+package com.imap143.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.imap143.application.service.WebSocketSessionService;
+
+// Session index operations with the registry already holding N sessions in rooms of ROOM_SIZE users
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SessionRegistryBenchmark {
+
+    private static final int ROOM_SIZE = 10;
+
+    @Param({"1000", "10000", "100000"})
+    private int sessions;
+
+    private WebSocketSessionService sessionService;
+    private String[] sessionIds;
+    private String[] userIds;
+    private String[] roomIds;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        sessionService = new WebSocketSessionService();
+        sessionIds = new String[sessions];
+        userIds = new String[sessions];
+        roomIds = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            sessionIds[i] = "session-" + i;
+            userIds[i] = "user-" + i;
+            roomIds[i] = "room-" + (i / ROOM_SIZE);
+            sessionService.initializeSession(sessionIds[i], userIds[i]);
+            sessionService.addSession(roomIds[i], sessionIds[i], userIds[i]);
+        }
+    }
+
+    private int next() {
+        cursor = cursor + 1 == sessions ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    // A reconnect: the old session goes away and a new one joins the same room
+    @Benchmark
+    public int removeAndAdd() {
+        int i = next();
+        sessionService.removeSession(sessionIds[i]);
+        sessionService.initializeSession(sessionIds[i], userIds[i]);
+        sessionService.addSession(roomIds[i], sessionIds[i], userIds[i]);
+        return i;
+    }
+
+    @Benchmark
+    public String lookupUser() {
+        return sessionService.getUserIdBySessionId(sessionIds[next()]);
+    }
+
+    @Benchmark
+    public boolean isUserInRoom() {
+        int i = next();
+        return sessionService.isUserInRoom(roomIds[i], userIds[i]);
+    }
+
+    @Benchmark
+    public int roomParticipants() {
+        return sessionService.getRoomParticipants(roomIds[next()]).size();
+    }
+}
@@ -0,0 +1,112 @@
+package com.imap143.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.imap143.application.dto.ChatMessageDto;
+import com.imap143.application.dto.IceCandidateDto;
+import com.imap143.application.dto.SessionDescriptionDto;
+import com.imap143.domain.entity.ChatMessage;
+
+// Encode/decode CPU of signaling frames in JSON vs CBOR; the wire size is reported next to each score as wireBytes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SignalCodecBenchmark {
+
+    @Param({"json", "cbor"})
+    private String codec;
+
+    @Param({"offer", "candidate"})
+    private String frame;
+
+    private ObjectMapper mapper;
+    private JavaType type;
+    private Object signal;
+    private byte[] encoded;
+
+    // Set rather than accumulated, so with one benchmark thread the reported value is the size of one frame
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+        public long wireBytes;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = codec.equals("cbor")
+            ? CBORMapper.builder().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build()
+            : new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        if (frame.equals("offer")) {
+            SessionDescriptionDto offer = new SessionDescriptionDto();
+            offer.setType("offer");
+            offer.setSdp(sampleSdp());
+            signal = request(ChatMessage.MessageType.OFFER, offer);
+            type = mapper.getTypeFactory().constructParametricType(ChatMessageDto.SignalRequest.class, SessionDescriptionDto.class);
+        } else {
+            IceCandidateDto candidate = new IceCandidateDto();
+            candidate.setCandidate("candidate:842163049 1 udp 1677729535 203.0.113.7 46154 typ srflx raddr 10.0.0.12 rport 46154 generation 0 ufrag EsAw network-cost 999");
+            candidate.setSdpMid("0");
+            candidate.setSdpMLineIndex(0);
+            candidate.setUsernameFragment("EsAw");
+            signal = request(ChatMessage.MessageType.ICE_CANDIDATE, candidate);
+            type = mapper.getTypeFactory().constructParametricType(ChatMessageDto.SignalRequest.class, IceCandidateDto.class);
+        }
+        encoded = mapper.writeValueAsBytes(signal);
+    }
+
+    @Benchmark
+    public byte[] encode(WireSize wire) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(signal);
+        wire.wireBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object decode(WireSize wire) throws IOException {
+        wire.wireBytes = encoded.length;
+        return mapper.readValue(encoded, type);
+    }
+
+    private static <T> ChatMessageDto.SignalRequest<T> request(ChatMessage.MessageType messageType, T payload) {
+        ChatMessageDto.SignalRequest<T> request = new ChatMessageDto.SignalRequest<>();
+        request.setType(messageType);
+        request.setRoomId("3f2b7c1e-8a4d-4e0b-9b61-2f6c0d9e5a10");
+        request.setSenderId("user-1");
+        request.setTargetId("user-2");
+        request.setSignal(payload);
+        return request;
+    }
+
+    // Roughly the size of a browser audio+video offer
+    private static String sampleSdp() {
+        StringBuilder sdp = new StringBuilder("v=0\r\no=- 4611731400430051336 2 IN IP4 127.0.0.1\r\ns=-\r\nt=0 0\r\n"
+            + "a=group:BUNDLE 0 1\r\na=msid-semantic: WMS stream\r\n");
+        for (String media : new String[] {"audio 9 UDP/TLS/RTP/SAVPF 111 63 9 0 8 13 110 126", "video 9 UDP/TLS/RTP/SAVPF 96 97 102 103 104 105 106 107 108 109"}) {
+            sdp.append("m=").append(media).append("\r\nc=IN IP4 0.0.0.0\r\na=rtcp:9 IN IP4 0.0.0.0\r\n")
+                .append("a=ice-ufrag:EsAw\r\na=ice-pwd:bP+XJMM09aR8AiX1jdukzR6Y\r\na=ice-options:trickle\r\n")
+                .append("a=fingerprint:sha-256 DA:39:A3:EE:5E:6B:4B:0D:32:55:BF:EF:95:60:18:90:AF:D8:07:09:5C:3A:1F:2B:8E:44:71:0C:D6:19:A2:7F\r\n")
+                .append("a=setup:actpass\r\na=sendrecv\r\na=rtcp-mux\r\n");
+            for (int pt = 96; pt < 110; pt++) {
+                sdp.append("a=rtpmap:").append(pt).append(" VP8/90000\r\na=rtcp-fb:").append(pt).append(" nack pli\r\n")
+                    .append("a=fmtp:").append(pt).append(" level-asymmetry-allowed=1;packetization-mode=1;profile-level-id=42e01f\r\n");
+            }
+        }
+        return sdp.toString();
+    }
+}
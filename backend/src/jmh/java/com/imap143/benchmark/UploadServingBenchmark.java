@@ -0,0 +1,139 @@
+package com.imap143.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import com.imap143.api.controller.UploadServingController;
+import com.imap143.application.service.FileStorageService;
+import com.imap143.application.service.ImageVariantService;
+import com.imap143.application.service.UploadServingService;
+
+// Per-request cost of the old /uploads resource handler (no-cache, Last-Modified revalidation) against
+// UploadServingController. 16 KB files sit in the serving LRU, 512 KB files are streamed with transferTo.
+// Responses are buffered in memory, so this measures handler overhead rather than socket throughput;
+// the bigger win, immutable caching, removes the revalidation requests altogether.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UploadServingBenchmark {
+
+    private static final String ROOM_ID = "3f2b7c1e-8a4d-4e0b-9b61-2f6c0d9e5a10";
+    private static final String NAME = "9c".repeat(32) + ".jpg";
+
+    @Param({"16", "512"})
+    private int sizeKb;
+
+    private Path root;
+    private long lastModified;
+    private ResourceHttpRequestHandler legacyHandler;
+    private UploadServingController controller;
+
+    @Setup
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("upload-serve-bench");
+        Path roomDir = Files.createDirectories(root.resolve(ROOM_ID));
+        byte[] content = new byte[sizeKb * 1024];
+        new Random(42).nextBytes(content);
+        Files.write(roomDir.resolve(NAME), content);
+        lastModified = Files.getLastModifiedTime(roomDir.resolve(NAME)).toMillis();
+
+        // Same settings WebConfig used to register for /uploads/**
+        legacyHandler = new ResourceHttpRequestHandler();
+        legacyHandler.setLocations(List.of(new FileSystemResource(root + "/")));
+        legacyHandler.setCacheControl(CacheControl.noCache());
+        legacyHandler.setServletContext(new MockServletContext());
+        legacyHandler.afterPropertiesSet();
+
+        FileStorageService storageService = new FileStorageService(new ImageVariantService());
+        BenchmarkFixtures.setField(storageService, "uploadDir", root.toString());
+        storageService.init();
+        UploadServingService servingService = new UploadServingService(storageService, new ImageVariantService());
+        BenchmarkFixtures.setField(servingService, "cacheMaxBytes", 32L * 1024 * 1024);
+        BenchmarkFixtures.setField(servingService, "cacheMaxFileBytes", 64L * 1024);
+        controller = new UploadServingController(servingService);
+        BenchmarkFixtures.setField(controller, "sendfileMinBytes", 48L * 1024);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse legacyGet() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        legacyHandler.handleRequest(legacyRequest(), response);
+        return response;
+    }
+
+    // What every render of a no-cache image cost the browser
+    @Benchmark
+    public MockHttpServletResponse legacyRevalidate() throws Exception {
+        MockHttpServletRequest request = legacyRequest();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        legacyHandler.handleRequest(request, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse servingGet() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(ROOM_ID, null, NAME, new MockHttpServletRequest("GET", "/uploads/" + ROOM_ID + "/" + NAME), response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse servingRevalidate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + ROOM_ID + "/" + NAME);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + NAME.substring(0, 64) + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(ROOM_ID, null, NAME, request, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse servingRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + ROOM_ID + "/" + NAME);
+        request.addHeader(HttpHeaders.RANGE, "bytes=4096-8191");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(ROOM_ID, null, NAME, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest legacyRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + ROOM_ID + "/" + NAME);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, ROOM_ID + "/" + NAME);
+        return request;
+    }
+}
@@ -0,0 +1,125 @@
+package com.imap143.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.imap143.application.service.FileStorageService;
+import com.imap143.application.service.ImageVariantService;
+
+// Upload throughput and disk bytes written per upload: the old multipart path (container spool, then a
+// per-room copy) against the content-addressed store. duplicatePercent of uploads repeat an earlier file.
+// Iterations are short and the store is wiped after each one, since every unique upload stays on disk.
+// Payloads are opaque .bin files so image variant generation stays out of the measurement.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UploadStoreBenchmark {
+
+    private static final String ROOM_ID = "3f2b7c1e-8a4d-4e0b-9b61-2f6c0d9e5a10";
+
+    @Param({"16", "256", "2048"})
+    private int sizeKb;
+
+    @Param({"0", "50"})
+    private int duplicatePercent;
+
+    private Path root;
+    private FileStorageService storageService;
+    private byte[] payload;
+    private long counter;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class DiskCounters {
+        public long diskBytesWritten;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            diskBytesWritten = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("upload-bench");
+        storageService = new FileStorageService(new ImageVariantService());
+        BenchmarkFixtures.setField(storageService, "uploadDir", root.toString());
+        BenchmarkFixtures.setField(storageService, "maxBytes", 64L * 1024 * 1024);
+        BenchmarkFixtures.setField(storageService, "memoryThreshold", 256L * 1024);
+        storageService.init();
+        Files.createDirectories(root.resolve("spool"));
+        Files.createDirectories(root.resolve(ROOM_ID));
+
+        payload = new byte[sizeKb * 1024];
+        new Random(42).nextBytes(payload);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    // The first 8 bytes carry a counter so non-duplicate uploads really are distinct content
+    private byte[] nextUpload() {
+        long id = counter++;
+        if (id % 100 < duplicatePercent) {
+            id = 0;
+        }
+        byte[] upload = payload.clone();
+        for (int i = 0; i < 8; i++) {
+            upload[i] = (byte) (id >>> (8 * i));
+        }
+        return upload;
+    }
+
+    // Container spools the part to disk past file-size-threshold, then Files.copy writes it again
+    @Benchmark
+    public Path multipartCopy(DiskCounters disk) throws IOException {
+        byte[] upload = nextUpload();
+        Path spooled = root.resolve("spool").resolve(UUID.randomUUID() + ".tmp");
+        Files.write(spooled, upload);
+        Path target = root.resolve(ROOM_ID).resolve(UUID.randomUUID() + ".bin");
+        try (InputStream in = Files.newInputStream(spooled)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.delete(spooled);
+        disk.diskBytesWritten += 2L * upload.length;
+        return target;
+    }
+
+    @Benchmark
+    public String contentAddressed(DiskCounters disk) {
+        byte[] upload = nextUpload();
+        long before = storageService.getStats().getBytesWritten();
+        String url = storageService.store(ROOM_ID, new ByteArrayInputStream(upload), "clip.bin", "application/octet-stream").url();
+        disk.diskBytesWritten += storageService.getStats().getBytesWritten() - before;
+        return url;
+    }
+}
@@ -0,0 +1,54 @@
+package com.imap143.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Command line: --rooms=10 --users-per-room=6 --duration-s=60 --chat-rate=0.5 --churn=0.01 --ice-candidates=4
+//               --seed=42, plus either --embedded [--profiles=inmemory] or --url=http://localhost:8080
+public record LoadTestConfig(
+        String url,
+        int rooms,
+        int usersPerRoom,
+        int durationSeconds,
+        double chatRatePerUser,    // chat messages per second per user
+        double churnPerSecond,     // per-user probability per second of leaving or dropping the connection
+        int iceCandidatesPerPeer,
+        long seed,
+        boolean embedded,          // boot the backend in this JVM on a random port instead of using --url
+        String profiles) {
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return new LoadTestConfig(
+                options.getOrDefault("url", "http://localhost:8080"),
+                Integer.parseInt(options.getOrDefault("rooms", "10")),
+                Integer.parseInt(options.getOrDefault("users-per-room", "6")),
+                Integer.parseInt(options.getOrDefault("duration-s", "60")),
+                Double.parseDouble(options.getOrDefault("chat-rate", "0.5")),
+                Double.parseDouble(options.getOrDefault("churn", "0.01")),
+                Integer.parseInt(options.getOrDefault("ice-candidates", "4")),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Boolean.parseBoolean(options.getOrDefault("embedded", "false")),
+                options.getOrDefault("profiles", "inmemory"));
+    }
+
+    public LoadTestConfig withUrl(String newUrl) {
+        return new LoadTestConfig(newUrl, rooms, usersPerRoom, durationSeconds, chatRatePerUser,
+                churnPerSecond, iceCandidatesPerPeer, seed, embedded, profiles);
+    }
+
+    public String webSocketUrl() {
+        return url.replaceFirst("^http", "ws") + "/ws-native";
+    }
+}
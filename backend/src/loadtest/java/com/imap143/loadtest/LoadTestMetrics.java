@@ -0,0 +1,76 @@
+package com.imap143.loadtest;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+// Latency histograms and counters shared by every simulated client
+public class LoadTestMetrics {
+
+    private static final long MAX_TRACKED_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    public enum Latency { JOIN, CHAT_DELIVERY, OFFER_ANSWER }
+
+    private final Map<Latency, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>(); // name -> count
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();   // kind -> count
+
+    public LoadTestMetrics() {
+        for (Latency latency : Latency.values()) {
+            histograms.put(latency, new ConcurrentHistogram(MAX_TRACKED_NANOS, 3));
+        }
+    }
+
+    public void record(Latency latency, long nanos) {
+        histograms.get(latency).recordValue(Math.max(0, Math.min(nanos, MAX_TRACKED_NANOS)));
+    }
+
+    public void count(String name) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).increment();
+    }
+
+    public void error(String kind) {
+        errors.computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+
+    public long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public void report(LoadTestConfig config, long elapsedNanos, PrintStream out) {
+        out.printf("%n== %d rooms x %d users, %.1f s ==%n", config.rooms(), config.usersPerRoom(),
+                elapsedNanos / 1e9);
+        out.printf("%-14s %9s %9s %9s %9s %9s %9s   (ms)%n", "latency", "count", "p50", "p90", "p99", "p99.9", "max");
+        histograms.forEach((latency, histogram) -> {
+            Histogram copy = histogram.copy();
+            out.printf("%-14s %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n", latency.name().toLowerCase(),
+                    copy.getTotalCount(),
+                    millis(copy.getValueAtPercentile(50)),
+                    millis(copy.getValueAtPercentile(90)),
+                    millis(copy.getValueAtPercentile(99)),
+                    millis(copy.getValueAtPercentile(99.9)),
+                    millis(copy.getMaxValue()));
+        });
+
+        Map<String, Long> sorted = new TreeMap<>();
+        counters.forEach((name, count) -> sorted.put(name, count.sum()));
+        out.println();
+        sorted.forEach((name, count) -> out.printf("%-24s %9d%n", name, count));
+
+        long attempts = counters.getOrDefault("connect.attempts", new LongAdder()).sum();
+        long failed = errorCount();
+        out.printf("%nerrors %d (%.2f%% of %d connection attempts)%n", failed,
+                attempts == 0 ? 0.0 : 100.0 * failed / attempts, attempts);
+        new TreeMap<>(errors).forEach((kind, count) -> out.printf("  %-22s %9d%n", kind, count.sum()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
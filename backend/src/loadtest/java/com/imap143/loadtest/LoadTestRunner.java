@@ -0,0 +1,121 @@
+package com.imap143.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imap143.MiniZoomApplication;
+
+// Entry point for ./gradlew loadTest; see LoadTestConfig for the options
+public class LoadTestRunner {
+
+    private static final long MAX_RAMP_UP_MS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        ConfigurableApplicationContext backend = null;
+        if (config.embedded()) {
+            backend = startBackend(config.profiles());
+            int port = ((WebServerApplicationContext) backend).getWebServer().getPort();
+            config = config.withUrl("http://localhost:" + port);
+        }
+
+        int exitCode;
+        try {
+            exitCode = run(config);
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestConfig config) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(converter);
+        stompClient.setInboundMessageSizeLimit(256 * 1024);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+                Math.max(4, Runtime.getRuntime().availableProcessors()), runnable -> {
+                    Thread thread = new Thread(runnable, "load-client-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        LoadTestMetrics metrics = new LoadTestMetrics();
+        HttpClient http = HttpClient.newHttpClient();
+        List<SimulatedClient> clients = new ArrayList<>();
+        long seed = config.seed();
+        for (int room = 0; room < config.rooms(); room++) {
+            String creatorId = "lt-r" + room + "-u0";
+            String roomId = createRoom(http, objectMapper, config, creatorId, "load-" + room);
+            for (int user = 0; user < config.usersPerRoom(); user++) {
+                clients.add(new SimulatedClient(roomId, "lt-r" + room + "-u" + user, config, metrics,
+                        stompClient, scheduler, seed++));
+            }
+        }
+
+        // Spread connects over the ramp-up so the first second is not one connection storm
+        long rampUpMs = Math.min(MAX_RAMP_UP_MS, config.durationSeconds() * 250L);
+        for (int i = 0; i < clients.size(); i++) {
+            clients.get(i).start(rampUpMs * i / Math.max(1, clients.size()));
+        }
+        System.out.printf("Started %d clients in %d rooms against %s%n", clients.size(), config.rooms(), config.url());
+
+        long startedAt = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(config.durationSeconds()));
+        clients.forEach(SimulatedClient::stop);
+        long elapsed = System.nanoTime() - startedAt;
+
+        // Let in-flight deliveries land before reporting
+        Thread.sleep(2_000);
+        metrics.report(config, elapsed, System.out);
+        scheduler.shutdownNow();
+        return 0;
+    }
+
+    private static String createRoom(HttpClient http, ObjectMapper objectMapper, LoadTestConfig config,
+            String creatorId, String name) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(config.url() + "/api/rooms"))
+                .header("Content-Type", "application/json")
+                .header("X-User-Id", creatorId)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("name", name))))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new RuntimeException("Room creation failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body()).path("id").asText();
+    }
+
+    private static ConfigurableApplicationContext startBackend(String profiles) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(MiniZoomApplication.class)
+                .properties("server.port=0");
+        if (!profiles.isBlank()) {
+            builder.profiles(profiles.split(","));
+        }
+        return builder.run();
+    }
+}
@@ -0,0 +1,330 @@
+package com.imap143.loadtest;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.imap143.application.dto.ChatMessageDto;
+import com.imap143.application.dto.IceCandidateDto;
+import com.imap143.application.dto.SessionDescriptionDto;
+import com.imap143.domain.entity.ChatMessage.MessageType;
+import com.imap143.loadtest.LoadTestMetrics.Latency;
+
+// One browser tab: joins over STOMP, offers to every peer on its roster, answers offers, trickles ICE,
+// chats at the configured rate and now and then leaves or drops its connection before coming back.
+public class SimulatedClient {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatedClient.class);
+    private static final long JOIN_TIMEOUT_MS = 10_000;
+    private static final String LATENCY_PREFIX = "lt:";
+    private static final String SDP = "v=0\r\no=- 4611731400430051336 2 IN IP4 127.0.0.1\r\ns=-\r\nt=0 0\r\n"
+            + "a=group:BUNDLE 0 1\r\nm=audio 9 UDP/TLS/RTP/SAVPF 111\r\na=rtpmap:111 opus/48000/2\r\n"
+            + "m=video 9 UDP/TLS/RTP/SAVPF 96\r\na=rtpmap:96 VP8/90000\r\n";
+
+    private final String roomId;
+    private final String userId;
+    private final LoadTestConfig config;
+    private final LoadTestMetrics metrics;
+    private final WebSocketStompClient stompClient;
+    private final ScheduledExecutorService scheduler;
+    private final Random random;
+    private final long tickMs;
+
+    private final Map<String, Long> offersInFlight = new ConcurrentHashMap<>(); // peerId -> offer sent at (nanos)
+    private volatile StompSession session;
+    private volatile long joinSentAt;
+    private volatile boolean closing;
+    private volatile boolean running = true;
+    private ScheduledFuture<?> ticker;
+
+    public SimulatedClient(String roomId, String userId, LoadTestConfig config, LoadTestMetrics metrics,
+            WebSocketStompClient stompClient, ScheduledExecutorService scheduler, long seed) {
+        this.roomId = roomId;
+        this.userId = userId;
+        this.config = config;
+        this.metrics = metrics;
+        this.stompClient = stompClient;
+        this.scheduler = scheduler;
+        this.random = new Random(seed);
+        this.tickMs = config.chatRatePerUser() > 0 ? Math.max(1, (long) (1000 / config.chatRatePerUser())) : 1000;
+    }
+
+    public void start(long delayMs) {
+        scheduler.schedule(this::connect, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        disconnect(true);
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        metrics.count("connect.attempts");
+        closing = false;
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("X-User-Id", userId);
+        connectHeaders.add("X-Capabilities", "ice-batch");
+        stompClient.connectAsync(config.webSocketUrl(), new WebSocketHttpHeaders(), connectHeaders, new SessionHandler())
+                .whenComplete((connected, e) -> {
+                    if (e != null) {
+                        metrics.error("connect");
+                        log.debug("{} failed to connect", userId, e);
+                        reconnectLater();
+                    }
+                });
+    }
+
+    private synchronized void onConnected(StompSession connected) {
+        session = connected;
+        connected.subscribe("/topic/room." + roomId, new JsonFrameHandler(this::onRoomMessage));
+        connected.subscribe("/queue/signal." + userId, new JsonFrameHandler(this::onSignal));
+
+        ChatMessageDto join = new ChatMessageDto();
+        join.setRoomId(roomId);
+        join.setSenderId(userId);
+        join.setSenderName(userId);
+        join.setType(MessageType.JOIN);
+        long sentAt = System.nanoTime();
+        joinSentAt = sentAt;
+        send("/app/chat.join", join);
+
+        scheduler.schedule(() -> {
+            if (joinSentAt == sentAt) {
+                metrics.error("join_timeout");
+                disconnect(false);
+                reconnectLater();
+            }
+        }, JOIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // The roster is the server's answer to chat.join, so it ends the join measurement
+    private synchronized void onJoined(JsonNode roster) {
+        long sentAt = joinSentAt;
+        if (sentAt != 0) {
+            metrics.record(Latency.JOIN, System.nanoTime() - sentAt);
+            joinSentAt = 0;
+        }
+        for (JsonNode peer : roster.path("signal").path("peers")) {
+            sendOffer(peer.asText());
+        }
+        if (ticker == null) {
+            ticker = scheduler.scheduleAtFixedRate(this::tick, random.nextInt((int) tickMs + 1), tickMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void onRoomMessage(JsonNode message) {
+        if (!"CHAT".equals(message.path("type").asText()) || userId.equals(message.path("senderId").asText())) {
+            return;
+        }
+        String content = message.path("content").asText();
+        if (content.startsWith(LATENCY_PREFIX)) {
+            metrics.record(Latency.CHAT_DELIVERY, System.nanoTime() - Long.parseLong(content.substring(LATENCY_PREFIX.length())));
+            metrics.count("chat.received");
+        }
+    }
+
+    private void onSignal(JsonNode signal) {
+        String senderId = signal.path("senderId").asText();
+        switch (signal.path("type").asText()) {
+            case "ROSTER" -> onJoined(signal);
+            case "OFFER" -> {
+                metrics.count("signal.offer.received");
+                sendDescription("/app/signal.answer", MessageType.ANSWER, senderId);
+                sendCandidates(senderId);
+            }
+            case "ANSWER" -> {
+                Long sentAt = offersInFlight.remove(senderId);
+                if (sentAt != null) {
+                    metrics.record(Latency.OFFER_ANSWER, System.nanoTime() - sentAt);
+                }
+                sendCandidates(senderId);
+            }
+            case "ICE_CANDIDATE" -> metrics.count("signal.ice.received");
+            case "ICE_CANDIDATE_BATCH" -> signal.path("signal").forEach(candidate -> metrics.count("signal.ice.received"));
+            default -> {
+                // LEAVE and MEDIA_STATUS need no reply
+            }
+        }
+    }
+
+    private void tick() {
+        if (!running || session == null || joinSentAt != 0) {
+            return;
+        }
+        if (random.nextDouble() < config.churnPerSecond() * tickMs / 1000.0) {
+            churn();
+            return;
+        }
+        if (config.chatRatePerUser() > 0) {
+            ChatMessageDto chat = new ChatMessageDto();
+            chat.setRoomId(roomId);
+            chat.setSenderId(userId);
+            chat.setSenderName(userId);
+            chat.setType(MessageType.CHAT);
+            chat.setContent(LATENCY_PREFIX + System.nanoTime());
+            if (send("/app/chat.send", chat)) {
+                metrics.count("chat.sent");
+            }
+        }
+    }
+
+    // Half the time a polite chat.leave, otherwise the socket just goes away as on a network drop
+    private synchronized void churn() {
+        boolean polite = random.nextBoolean();
+        metrics.count(polite ? "churn.leave" : "churn.drop");
+        disconnect(polite);
+        reconnectLater();
+    }
+
+    private synchronized void disconnect(boolean polite) {
+        if (ticker != null) {
+            ticker.cancel(false);
+            ticker = null;
+        }
+        StompSession current = session;
+        session = null;
+        joinSentAt = 0;
+        offersInFlight.clear();
+        if (current == null || !current.isConnected()) {
+            return;
+        }
+        closing = true;
+        if (polite) {
+            ChatMessageDto leave = new ChatMessageDto();
+            leave.setRoomId(roomId);
+            leave.setSenderId(userId);
+            leave.setType(MessageType.LEAVE);
+            try {
+                current.send("/app/chat.leave", leave);
+            } catch (RuntimeException e) {
+                metrics.error("send");
+            }
+        }
+        current.disconnect();
+    }
+
+    private void reconnectLater() {
+        if (running) {
+            scheduler.schedule(this::connect, 1000 + random.nextInt(2000), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sendOffer(String peerId) {
+        offersInFlight.put(peerId, System.nanoTime());
+        sendDescription("/app/signal.offer", MessageType.OFFER, peerId);
+    }
+
+    private void sendDescription(String destination, MessageType type, String targetId) {
+        SessionDescriptionDto description = new SessionDescriptionDto();
+        description.setType(type == MessageType.OFFER ? "offer" : "answer");
+        description.setSdp(SDP);
+        send(destination, signal(type, targetId, description));
+    }
+
+    private void sendCandidates(String targetId) {
+        for (int i = 0; i < config.iceCandidatesPerPeer(); i++) {
+            IceCandidateDto candidate = new IceCandidateDto();
+            candidate.setCandidate("candidate:" + i + " 1 udp 2122260223 10.0.0." + (i + 2) + " " + (50000 + i) + " typ host");
+            candidate.setSdpMid("0");
+            candidate.setSdpMLineIndex(0);
+            send("/app/signal.ice_candidate", signal(MessageType.ICE_CANDIDATE, targetId, candidate));
+        }
+    }
+
+    private <T> ChatMessageDto.SignalRequest<T> signal(MessageType type, String targetId, T payload) {
+        ChatMessageDto.SignalRequest<T> request = new ChatMessageDto.SignalRequest<>();
+        request.setType(type);
+        request.setRoomId(roomId);
+        request.setSenderId(userId);
+        request.setTargetId(targetId);
+        request.setSignal(payload);
+        return request;
+    }
+
+    private boolean send(String destination, Object payload) {
+        StompSession current = session;
+        if (current == null) {
+            return false;
+        }
+        try {
+            current.send(destination, payload);
+            return true;
+        } catch (RuntimeException e) {
+            metrics.error("send");
+            return false;
+        }
+    }
+
+    private class SessionHandler extends StompSessionHandlerAdapter {
+
+        @Override
+        public void afterConnected(@NonNull StompSession connected, @NonNull StompHeaders connectedHeaders) {
+            onConnected(connected);
+        }
+
+        @Override
+        public void handleFrame(@NonNull StompHeaders headers, Object payload) {
+            // The session handler only sees ERROR frames
+            metrics.error("stomp_error");
+            log.debug("{} received ERROR: {}", userId, headers.getFirst("message"));
+        }
+
+        @Override
+        public void handleException(@NonNull StompSession failed, StompCommand command, @NonNull StompHeaders headers,
+                @NonNull byte[] payload, @NonNull Throwable exception) {
+            metrics.error("frame_handling");
+            log.debug("{} failed to handle {} frame", userId, command, exception);
+        }
+
+        @Override
+        public void handleTransportError(@NonNull StompSession failed, @NonNull Throwable exception) {
+            if (closing || !running) {
+                return;
+            }
+            metrics.error("transport");
+            log.debug("{} lost its connection", userId, exception);
+            synchronized (SimulatedClient.this) {
+                if (session == failed) {
+                    disconnect(false);
+                    reconnectLater();
+                }
+            }
+        }
+    }
+
+    private record JsonFrameHandler(Consumer<JsonNode> consumer) implements StompFrameHandler {
+
+        @Override
+        @NonNull
+        public Type getPayloadType(@NonNull StompHeaders headers) {
+            return JsonNode.class;
+        }
+
+        @Override
+        public void handleFrame(@NonNull StompHeaders headers, Object payload) {
+            consumer.accept((JsonNode) payload);
+        }
+    }
+}
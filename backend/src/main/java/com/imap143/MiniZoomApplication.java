@@ -2,8 +2,10 @@ package com.imap143;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MiniZoomApplication {
 
 	public static void main(String[] args) {
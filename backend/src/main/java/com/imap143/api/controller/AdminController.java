@@ -0,0 +1,111 @@
+package com.imap143.api.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.imap143.application.dto.BackpressureStats;
+import com.imap143.application.dto.CacheStats;
+import com.imap143.application.dto.LatencySnapshot;
+import com.imap143.application.dto.PersistenceStats;
+import com.imap143.application.dto.ReclaimReport;
+import com.imap143.application.dto.ServingStats;
+import com.imap143.application.dto.StorageStats;
+import com.imap143.application.service.FileStorageService;
+import com.imap143.application.service.LatencyTracer;
+import com.imap143.application.service.MessagePersistencePipeline;
+import com.imap143.application.service.RecentMessageCache;
+import com.imap143.application.service.StorageJanitor;
+import com.imap143.application.service.UploadServingService;
+import com.imap143.config.OutboundBackpressureMonitor;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final MessagePersistencePipeline persistencePipeline;
+    private final RecentMessageCache recentMessageCache;
+    private final OutboundBackpressureMonitor outboundBackpressureMonitor;
+    private final LatencyTracer latencyTracer;
+    private final FileStorageService fileStorageService;
+    private final UploadServingService uploadServingService;
+    private final StorageJanitor storageJanitor;
+
+    // The API has no admin authentication, so deleting from the upload store over HTTP is opt-in
+    @Value("${file.janitor.reclaim-endpoint-enabled:false}")
+    private boolean reclaimEndpointEnabled;
+
+    @GetMapping("/persistence")
+    public ResponseEntity<PersistenceStats> getPersistenceStats() {
+        return ResponseEntity.ok(persistencePipeline.getStats());
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return ResponseEntity.ok(recentMessageCache.getStats());
+    }
+
+    @GetMapping("/backpressure")
+    public ResponseEntity<BackpressureStats> getBackpressureStats() {
+        return ResponseEntity.ok(outboundBackpressureMonitor.getStats());
+    }
+
+    @GetMapping("/storage")
+    public ResponseEntity<StorageStats> getStorageStats() {
+        return ResponseEntity.ok(fileStorageService.getStats());
+    }
+
+    @GetMapping("/storage/reclaim")
+    public ResponseEntity<ReclaimReport> getLastReclaim() {
+        ReclaimReport report = storageJanitor.getLastReport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    // Dry run unless dryRun=false is passed explicitly. The run is throttled and can take minutes, so it is
+    // queued on the janitor thread; GET /storage/reclaim returns its report once it finishes.
+    @PostMapping("/storage/reclaim")
+    public ResponseEntity<Object> reclaimStorage(@RequestParam(defaultValue = "true") boolean dryRun) {
+        Map<String, String> response = new HashMap<>();
+        if (!reclaimEndpointEnabled) {
+            response.put("error", "Storage reclamation endpoint is disabled (file.janitor.reclaim-endpoint-enabled=false)");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        try {
+            storageJanitor.requestReclaim(dryRun);
+            return ResponseEntity.accepted().build();
+        } catch (IllegalStateException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    @GetMapping("/serving")
+    public ResponseEntity<ServingStats> getServingStats() {
+        return ResponseEntity.ok(uploadServingService.getStats());
+    }
+
+    // Sampled per-stage latency by destination type (chat, offer, answer, ice, media). OUTBOUND and TOTAL
+    // counts are per recipient, the other stages per sampled frame
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Map<LatencyTracer.Stage, LatencySnapshot>>> getLatency() {
+        return ResponseEntity.ok(latencyTracer.getSnapshot());
+    }
+
+    @DeleteMapping("/latency")
+    public ResponseEntity<Void> resetLatency() {
+        latencyTracer.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -15,16 +15,23 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imap143.api.dto.request.ParticipantSyncRequest;
+import com.imap143.api.dto.request.ResumeRequest;
+import com.imap143.api.dto.response.ChatMessagePageResponse;
 import com.imap143.api.dto.response.ChatMessageResponse;
 import com.imap143.application.dto.ChatMessageDto;
+import com.imap143.application.dto.IceCandidateDto;
 import com.imap143.application.dto.MediaStatusDto;
+import com.imap143.application.dto.SessionDescriptionDto;
 import com.imap143.application.service.ChatMessageService;
+import com.imap143.application.service.MessageFanout;
 import com.imap143.application.service.WebRTCService;
 import com.imap143.application.service.WebSocketSessionService;
 import com.imap143.domain.entity.ChatMessage;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Controller
@@ -35,24 +42,27 @@ public class ChatMessageController {
     private final ChatMessageService chatMessageService;
     private final WebRTCService webRTCService;
     private final WebSocketSessionService webSocketSessionService;
-    private final ObjectMapper objectMapper;
+    private final MessageFanout messageFanout;
     private static final Logger log = LoggerFactory.getLogger(ChatMessageController.class);
     private static final String TOPIC_ROOM = "/topic/room.";
+    private static final String QUEUE_RESUME = "/queue/resume.";
+    private static final int RESUME_PAGE_SIZE = 200;
 
     @MessageMapping("/chat.send")
+    @Timed(value = "chat.stomp.handler", extraTags = {"destination", "chat.send"})
     public void sendMessage(@Payload ChatMessageDto messageDto) {
         log.info("Received message: {}", messageDto);
         if (messageDto.getType() == ChatMessage.MessageType.IMAGE) {
             log.info("Image URL: {}", messageDto.getImageUrl());
         }
         
-        ChatMessageResponse saved = chatMessageService.saveMessage(messageDto);
-        log.info("Saved message: {}", saved);
-        
-        messagingTemplate.convertAndSend(TOPIC_ROOM + messageDto.getRoomId(), saved);
+        // Persistence is batched off the inbound thread; the durability mode decides when to broadcast
+        chatMessageService.publishMessage(messageDto,
+            saved -> messageFanout.send(TOPIC_ROOM + messageDto.getRoomId(), saved));
     }
 
     @MessageMapping("/chat.join")
+    @Timed(value = "chat.stomp.handler", extraTags = {"destination", "chat.join"})
     public void joinRoom(@Payload ChatMessageDto messageDto, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = headerAccessor.getSessionId();
         String roomId = messageDto.getRoomId();
@@ -79,51 +89,109 @@ public class ChatMessageController {
         
         // Broadcast chat room entry message
         messageDto.setType(ChatMessage.MessageType.JOIN);
-        messagingTemplate.convertAndSend(TOPIC_ROOM + roomId, messageDto);
+        messageFanout.send(TOPIC_ROOM + roomId, messageDto);
     }
 
     @MessageMapping("/chat.leave")
-    public void leaveRoom(@Payload ChatMessageDto messageDto) {
+    @Timed(value = "chat.stomp.handler", extraTags = {"destination", "chat.leave"})
+    public void leaveRoom(@Payload ChatMessageDto messageDto, SimpMessageHeaderAccessor headerAccessor) {
         messageDto.setType(ChatMessage.MessageType.LEAVE);
-        messagingTemplate.convertAndSend(TOPIC_ROOM + messageDto.getRoomId(), messageDto);
+        messageFanout.send(TOPIC_ROOM + messageDto.getRoomId(), messageDto);
+        
+        // Only this session leaves; other sessions of the same user stay in the room
+        webSocketSessionService.leaveRoom(messageDto.getRoomId(), headerAccessor.getSessionId());
         
         // WebRTC Participant Remove
         webRTCService.removeParticipant(messageDto.getRoomId(), messageDto.getSenderId());
     }
 
+    // Replays messages after the client's last seen sequence to its own queue after a reconnect
+    @MessageMapping("/chat.resume")
+    @Timed(value = "chat.stomp.handler", extraTags = {"destination", "chat.resume"})
+    public void resume(@Payload ResumeRequest request) {
+        ChatMessagePageResponse page = chatMessageService.getRoomMessagesAfterSequence(
+            request.getRoomId(), request.getLastSequence(), RESUME_PAGE_SIZE);
+        messagingTemplate.convertAndSend(QUEUE_RESUME + request.getUserId(), page);
+    }
+
+    // Clients that see a gap in participant event versions ask for a fresh snapshot
+    @MessageMapping("/participants.sync")
+    @Timed(value = "chat.stomp.handler", extraTags = {"destination", "participants.sync"})
+    public void syncParticipants(@Payload ParticipantSyncRequest request) {
+        webRTCService.syncParticipants(request.getRoomId(), request.getUserId(), request.getVersion());
+    }
+
     // WebRTC Signaling
     @MessageMapping("/signal.offer")
-    public void handleOffer(@Payload ChatMessageDto.SignalRequest request) {
+    @Timed(value = "chat.stomp.handler", extraTags = {"destination", "signal.offer"})
+    public void handleOffer(@Payload ChatMessageDto.SignalRequest<SessionDescriptionDto> request) {
         request.setType(ChatMessage.MessageType.OFFER);
         webRTCService.handleOffer(request);
     }
 
     @MessageMapping("/signal.answer")
-    public void handleAnswer(@Payload ChatMessageDto.SignalRequest request) {
+    @Timed(value = "chat.stomp.handler", extraTags = {"destination", "signal.answer"})
+    public void handleAnswer(@Payload ChatMessageDto.SignalRequest<SessionDescriptionDto> request) {
         request.setType(ChatMessage.MessageType.ANSWER);
         webRTCService.handleAnswer(request);
     }
 
     @MessageMapping("/signal.ice_candidate")
-    public void handleIceCandidate(@Payload ChatMessageDto.SignalRequest request) {
-        messagingTemplate.convertAndSend(
-            "/queue/signal." + request.getTargetId(),
-            request
-        );
+    @Timed(value = "chat.stomp.handler", extraTags = {"destination", "signal.ice_candidate"})
+    public void handleIceCandidate(@Payload ChatMessageDto.SignalRequest<IceCandidateDto> request) {
+        request.setType(ChatMessage.MessageType.ICE_CANDIDATE);
+        webRTCService.handleIceCandidate(request);
     }
 
     @MessageMapping("/signal.media_status")
-    public void handleMediaStatusChange(@Payload ChatMessageDto.SignalRequest request) {
-        MediaStatusDto mediaStatus = objectMapper.convertValue(request.getSignal(), MediaStatusDto.class);
-        webRTCService.handleMediaStatusChange(request.getRoomId(), request.getSenderId(), mediaStatus);
+    @Timed(value = "chat.stomp.handler", extraTags = {"destination", "signal.media_status"})
+    public void handleMediaStatusChange(@Payload ChatMessageDto.SignalRequest<MediaStatusDto> request) {
+        webRTCService.handleMediaStatusChange(request.getRoomId(), request.getSenderId(), request.getSignal());
     }
 
     @GetMapping("/api/rooms/{roomId}/messages")
     public ResponseEntity<Object> getRoomMessages(
         @PathVariable String roomId,
+        @RequestParam(required = false) String before,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "50") int limit,
+        @RequestHeader("X-User-Id") String userId) {
+        try {
+            ChatMessagePageResponse page = chatMessageService.getRoomMessages(roomId, before, after, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Failed to load messages: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    @GetMapping("/api/rooms/{roomId}/messages/resume")
+    public ResponseEntity<Object> resumeRoomMessages(
+        @PathVariable String roomId,
+        @RequestParam long afterSequence,
+        @RequestParam(defaultValue = "200") int limit,
+        @RequestHeader("X-User-Id") String userId) {
+        try {
+            return ResponseEntity.ok(chatMessageService.getRoomMessagesAfterSequence(roomId, afterSequence, limit));
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Failed to load messages: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    @GetMapping("/api/rooms/{roomId}/messages/since")
+    public ResponseEntity<Object> getRoomMessagesSince(
+        @PathVariable String roomId,
+        @RequestParam long timestamp,
         @RequestHeader("X-User-Id") String userId) {
         try {
-            List<ChatMessageResponse> messages = chatMessageService.getRoomMessages(roomId);
+            List<ChatMessageResponse> messages = chatMessageService.getRoomMessagesSince(roomId, timestamp);
             return ResponseEntity.ok(messages);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
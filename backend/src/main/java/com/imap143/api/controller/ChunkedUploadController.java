@@ -0,0 +1,126 @@
+package com.imap143.api.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import com.imap143.api.dto.request.ChunkedUploadRequest;
+import com.imap143.application.service.ChunkedUploadService;
+import com.imap143.application.service.ChunkedUploadService.UploadStatus;
+import com.imap143.application.service.FileStorageService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+// Resumable upload protocol: POST to start, PUT each chunk at its offset (any order, in parallel),
+// GET to see which chunks are still missing after a disconnect, then POST .../complete for the /uploads URL.
+@RestController
+@RequestMapping("/api/upload/chunked")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadController.class);
+
+    @PostMapping
+    public ResponseEntity<UploadStatus> init(
+            @RequestBody ChunkedUploadRequest request,
+            @RequestHeader("X-User-Id") String userId) {
+        return ResponseEntity.ok(chunkedUploadService.init(
+            request.getRoomId(), userId, request.getFileName(), request.getContentType(), request.getSize()));
+    }
+
+    @PutMapping("/{uploadId}")
+    public ResponseEntity<UploadStatus> putChunk(
+            HttpServletRequest request,
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader("X-User-Id") String userId) throws IOException {
+        try (InputStream body = request.getInputStream()) {
+            return ResponseEntity.ok(chunkedUploadService.putChunk(uploadId, userId, offset, body));
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadStatus> getStatus(
+            @PathVariable String uploadId,
+            @RequestHeader("X-User-Id") String userId) {
+        return ResponseEntity.ok(chunkedUploadService.getStatus(uploadId, userId));
+    }
+
+    // Same response as /api/upload/stream; 409 with the missing chunks if the upload is not finished yet
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Object> complete(
+            @PathVariable String uploadId,
+            @RequestHeader("X-User-Id") String userId) {
+        FileStorageService.StoredFile stored = chunkedUploadService.complete(uploadId, userId);
+        if (stored == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(chunkedUploadService.getStatus(uploadId, userId));
+        }
+        Map<String, String> response = new HashMap<>();
+        response.put("imageUrl", stored.url());
+        response.put("hash", stored.hash());
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abort(
+            @PathVariable String uploadId,
+            @RequestHeader("X-User-Id") String userId) {
+        chunkedUploadService.abort(uploadId, userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<Map<String, String>> handleUnknownUpload(NoSuchElementException e) {
+        return error(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return error(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(IllegalStateException e) {
+        return error(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<Map<String, String>> handleTooLarge(MaxUploadSizeExceededException e) {
+        return error(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+    }
+
+    @ExceptionHandler({IOException.class, RuntimeException.class})
+    public ResponseEntity<Map<String, String>> handleFailure(Exception e) {
+        log.error("Chunked upload error", e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+
+    private static ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
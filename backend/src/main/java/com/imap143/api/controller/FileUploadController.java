@@ -1,11 +1,16 @@
 package com.imap143.api.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 import com.imap143.application.service.FileStorageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,9 +18,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartException;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -50,6 +57,38 @@ public class FileUploadController {
         }
     }
 
+    // Raw request body instead of multipart: nothing is spooled by the container, the store hashes and
+    // writes the bytes once. The file name travels URI-encoded in X-File-Name.
+    @PostMapping("/api/upload/stream")
+    public ResponseEntity<Map<String, String>> uploadStream(
+            HttpServletRequest request,
+            @RequestParam("roomId") String roomId,
+            @RequestHeader(value = "X-File-Name", required = false) String encodedFileName,
+            @RequestHeader("X-User-Id") String userId) {
+        String fileName = encodedFileName == null ? null : URLDecoder.decode(encodedFileName, StandardCharsets.UTF_8);
+        try (InputStream body = request.getInputStream()) {
+            FileStorageService.StoredFile stored = fileStorageService.store(roomId, body, fileName, request.getContentType());
+
+            Map<String, String> response = new HashMap<>();
+            response.put("imageUrl", stored.url());
+            response.put("hash", stored.hash());
+            return ResponseEntity.ok(response);
+        } catch (MaxUploadSizeExceededException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (IOException | RuntimeException e) {
+            log.error("File upload error", e);
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
     @ExceptionHandler(MultipartException.class)
     public ResponseEntity<Map<String, String>> handleMultipartException(MultipartException e) {
         Map<String, String> response = new HashMap<>();
@@ -0,0 +1,155 @@
+package com.imap143.api.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.imap143.application.service.UploadServingService;
+import com.imap143.application.service.UploadServingService.ServedFile;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+// Serves uploads and their image variants with immutable caching, strong ETags and single byte ranges.
+// Large bodies go out through Tomcat's sendfile when the connector offers it, otherwise FileChannel.transferTo.
+@RestController
+@RequiredArgsConstructor
+public class UploadServingController {
+
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "no-cache";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final UploadServingService uploadServingService;
+
+    @Value("${file.serve.sendfile-min-bytes:49152}")
+    private long sendfileMinBytes;
+
+    @GetMapping({"/uploads/{roomId}/{name}", "/uploads/{roomId}/{variant}/{name}"})
+    public void serve(
+            @PathVariable String roomId,
+            @PathVariable(required = false) String variant,
+            @PathVariable String name,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        ServedFile file = uploadServingService.resolve(roomId, variant, name);
+        if (file == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, file.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.immutable() ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), file.etag())) {
+            uploadServingService.recordNotModified();
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setContentType(file.contentType().toString());
+
+        long start = 0;
+        long end = file.length() - 1;
+        boolean partial = false;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(file.etag()))) {
+            HttpRange byteRange = singleRange(range);
+            if (byteRange != null) {
+                start = byteRange.getRangeStart(file.length());
+                end = byteRange.getRangeEnd(file.length());
+                if (start >= file.length() || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.length());
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                partial = true;
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + file.length());
+            }
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        try {
+            byte[] cached = uploadServingService.cachedContent(file);
+            if (cached != null) {
+                response.getOutputStream().write(cached, (int) start, (int) count);
+                uploadServingService.recordServed(count, partial, false);
+            } else if (count >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat hands the file straight to the socket after this method returns
+                request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                uploadServingService.recordServed(count, partial, true);
+            } else {
+                transfer(file, start, count, response.getOutputStream());
+                uploadServingService.recordServed(count, partial, false);
+            }
+        } catch (NoSuchFileException e) {
+            // Removed between resolve and read
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.NOT_FOUND.value());
+            }
+        }
+    }
+
+    private static void transfer(ServedFile file, long start, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    throw new IOException("Unexpected end of " + file.path());
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // Multiple or malformed ranges are ignored and the whole file is sent, which RFC 9110 allows
+    private static HttpRange singleRange(String header) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,11 @@
+package com.imap143.api.dto.request;
+
+import lombok.Data;
+
+@Data
+public class ChunkedUploadRequest {
+    private String roomId;
+    private String fileName;
+    private String contentType;
+    private long size;          // Total bytes, fixed for the life of the upload
+}
@@ -0,0 +1,10 @@
+package com.imap143.api.dto.request;
+
+import lombok.Data;
+
+@Data
+public class ParticipantSyncRequest {
+    private String roomId;
+    private String userId;
+    private long version;  // Roster version the client currently holds
+}
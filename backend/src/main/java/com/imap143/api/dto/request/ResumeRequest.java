@@ -0,0 +1,10 @@
+package com.imap143.api.dto.request;
+
+import lombok.Data;
+
+@Data
+public class ResumeRequest {
+    private String roomId;
+    private String userId;
+    private long lastSequence;  // Highest sequence the client has already seen
+}
@@ -0,0 +1,20 @@
+package com.imap143.api.dto.response;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ChatMessagePageResponse {
+    private List<ChatMessageResponse> messages;  // Always in ascending timestamp order
+    private String nextCursor;                   // Pass as before/after to continue in the same direction
+    private boolean hasMore;
+
+    public static ChatMessagePageResponse of(List<ChatMessageResponse> messages, String nextCursor, boolean hasMore) {
+        ChatMessagePageResponse response = new ChatMessagePageResponse();
+        response.setMessages(messages);
+        response.setNextCursor(nextCursor);
+        response.setHasMore(hasMore);
+        return response;
+    }
+}
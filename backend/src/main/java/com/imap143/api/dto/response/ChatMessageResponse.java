@@ -15,8 +15,11 @@ public class ChatMessageResponse {
     private String senderName;
     private String content;
     private String imageUrl;
+    private String thumbnailUrl;
+    private String mediumUrl;
     private MessageType type;
     private long timestamp;
+    private long sequence;
     
     public static ChatMessageResponse from(ChatMessage message) {
         ChatMessageResponse response = new ChatMessageResponse();
@@ -26,8 +29,11 @@ public class ChatMessageResponse {
         response.setSenderName(message.getSenderName());
         response.setContent(message.getContent());
         response.setImageUrl(message.getImageUrl());
+        response.setThumbnailUrl(message.getThumbnailUrl());
+        response.setMediumUrl(message.getMediumUrl());
         response.setType(message.getType());
         response.setTimestamp(message.getTimestamp());
+        response.setSequence(message.getSequence());
         return response;
     }
     
@@ -14,6 +14,7 @@ public class ChatRoomResponse {
     private int participantCount;
     private List<String> participants;
     private List<String> activeParticipants;
+    private long participantVersion;
     
     public static ChatRoomResponse from(ChatRoomDto dto) {
         ChatRoomResponse response = new ChatRoomResponse();
@@ -24,6 +25,7 @@ public class ChatRoomResponse {
         response.setParticipants(dto.getParticipants());
         response.setActiveParticipants(dto.getActiveParticipants());
         response.setParticipantCount(dto.getActiveParticipants().size());
+        response.setParticipantVersion(dto.getParticipantVersion());
         return response;
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.imap143.application.dto;
+
+import java.util.Map;
+
+import lombok.Data;
+
+@Data
+public class BackpressureStats {
+    private int sessions;
+    private long totalPendingFrames;
+    private int maxPendingFrames;
+    private int softLimit;
+    private long droppedFrames;
+    private long slowSessionsClosed;
+    private Map<String, Integer> deepestSessions;   // sessionId -> pending frames, deepest first
+}
@@ -0,0 +1,14 @@
+package com.imap143.application.dto;
+
+import lombok.Data;
+
+@Data
+public class CacheStats {
+    private int rooms;
+    private long messages;
+    private long estimatedBytes;
+    private long maxBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+}
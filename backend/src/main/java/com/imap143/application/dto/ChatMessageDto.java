@@ -15,11 +15,11 @@ public class ChatMessageDto {
     private long timestamp;
     
     @Data
-    public static class SignalRequest {
+    public static class SignalRequest<T> {
         private String roomId;
         private String senderId;
         private String targetId;  // Send Signal to Specific User
-        private Object signal;    // WebRTC Signal data (offer, answer, ice candidate)
+        private T signal;         // Typed WebRTC Signal data (SessionDescriptionDto, IceCandidateDto, MediaStatusDto, ...)
         private MessageType type;
     }
 } 
\ No newline at end of file
@@ -15,6 +15,7 @@ public class ChatRoomDto {
     private Long createdAt;
     private List<String> participants;
     private List<String> activeParticipants;
+    private long participantVersion;
     
     // Information for Create ChatRoom
     public static ChatRoomDto from(CreateRoomRequest request, String userId) {
@@ -33,6 +34,7 @@ public class ChatRoomDto {
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setParticipants(entity.getParticipants());
         dto.setActiveParticipants(entity.getActiveParticipants());
+        dto.setParticipantVersion(entity.getParticipantVersion());
         return dto;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.imap143.application.dto;
+
+import lombok.Data;
+
+// RTCIceCandidateInit carried by ICE_CANDIDATE and ICE_CANDIDATE_BATCH signals
+@Data
+public class IceCandidateDto {
+    private String candidate;
+    private String sdpMid;
+    private Integer sdpMLineIndex;
+    private String usernameFragment;
+}
@@ -0,0 +1,12 @@
+package com.imap143.application.dto;
+
+import lombok.Data;
+
+@Data
+public class LatencySnapshot {
+    private long count;
+    private double p50Ms;
+    private double p99Ms;
+    private double p999Ms;
+    private double maxMs;
+}
@@ -0,0 +1,34 @@
+package com.imap143.application.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.imap143.domain.entity.ChatMessage;
+
+import lombok.Value;
+
+// Opaque keyset position: base64url("timestamp:id")
+@Value
+public class MessageCursor {
+    long timestamp;
+    String id;
+
+    public static MessageCursor of(ChatMessage message) {
+        return new MessageCursor(message.getTimestamp(), message.getId());
+    }
+
+    public static MessageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new MessageCursor(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid message cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
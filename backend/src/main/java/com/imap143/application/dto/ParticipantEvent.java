@@ -0,0 +1,47 @@
+package com.imap143.application.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+// Versioned roster change on /topic/room.{roomId}.participants; SNAPSHOT goes to /queue/participants.{userId}
+@Data
+public class ParticipantEvent {
+    private String roomId;
+    private Type type;
+    private long version;               // Roster version after this event is applied
+    private List<String> userIds;       // Users joined or left (JOINED, LEFT)
+    private List<String> participants;  // Full active roster (SNAPSHOT)
+
+    public enum Type {
+        SNAPSHOT,
+        JOINED,
+        LEFT
+    }
+
+    public static ParticipantEvent snapshot(String roomId, long version, List<String> participants) {
+        ParticipantEvent event = of(roomId, Type.SNAPSHOT, version);
+        event.setParticipants(participants);
+        return event;
+    }
+
+    public static ParticipantEvent joined(String roomId, long version, List<String> userIds) {
+        ParticipantEvent event = of(roomId, Type.JOINED, version);
+        event.setUserIds(userIds);
+        return event;
+    }
+
+    public static ParticipantEvent left(String roomId, long version, List<String> userIds) {
+        ParticipantEvent event = of(roomId, Type.LEFT, version);
+        event.setUserIds(userIds);
+        return event;
+    }
+
+    private static ParticipantEvent of(String roomId, Type type, long version) {
+        ParticipantEvent event = new ParticipantEvent();
+        event.setRoomId(roomId);
+        event.setType(type);
+        event.setVersion(version);
+        return event;
+    }
+}
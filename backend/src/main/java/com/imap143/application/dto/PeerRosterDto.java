@@ -0,0 +1,16 @@
+package com.imap143.application.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// ROSTER signal payload: peers the joiner should offer to
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeerRosterDto {
+    private List<String> peers;
+    private long version;
+}
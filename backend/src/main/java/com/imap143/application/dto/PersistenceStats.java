@@ -0,0 +1,17 @@
+package com.imap143.application.dto;
+
+import lombok.Data;
+
+@Data
+public class PersistenceStats {
+    private String durabilityMode;
+    private int queueDepth;
+    private int queueCapacity;
+    private long batchesFlushed;
+    private long messagesPersisted;
+    private long messagesRejected;
+    private long flushFailures;
+    private double lastFlushLatencyMs;
+    private double maxFlushLatencyMs;
+    private double avgFlushLatencyMs;
+}
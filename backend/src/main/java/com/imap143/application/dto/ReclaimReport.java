@@ -0,0 +1,18 @@
+package com.imap143.application.dto;
+
+import lombok.Data;
+
+@Data
+public class ReclaimReport {
+    private boolean dryRun;
+    private long startedAt;
+    private long durationMs;
+    private long ioOps;             // Directory entries visited plus deletions, the unit of the I/O budget
+    private int roomDirectories;    // Upload directories of rooms that no longer exist
+    private long references;
+    private long blobs;
+    private long variants;
+    private long tempFiles;
+    private long bytesReclaimed;    // Space actually freed; a hard-linked reference frees nothing until its blob goes
+    private boolean interrupted;
+}
@@ -0,0 +1,18 @@
+package com.imap143.application.dto;
+
+import lombok.Data;
+
+@Data
+public class ServingStats {
+    private long requests;
+    private long notModified;
+    private long partial;
+    private long sendfile;
+    private long bytesServed;
+    private int cachedFiles;
+    private long cachedBytes;
+    private long cacheMaxBytes;
+    private long cacheHits;
+    private long cacheMisses;
+    private long cacheEvictions;
+}
@@ -0,0 +1,10 @@
+package com.imap143.application.dto;
+
+import lombok.Data;
+
+// RTCSessionDescriptionInit carried by OFFER and ANSWER signals
+@Data
+public class SessionDescriptionDto {
+    private String type;    // "offer" or "answer"
+    private String sdp;
+}
@@ -0,0 +1,11 @@
+package com.imap143.application.dto;
+
+import lombok.Data;
+
+@Data
+public class StorageStats {
+    private long uploads;
+    private long deduplicated;
+    private long bytesReceived;
+    private long bytesWritten;
+}
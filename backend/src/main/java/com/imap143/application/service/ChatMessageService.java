@@ -1,12 +1,25 @@
 package com.imap143.application.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.imap143.api.dto.response.ChatMessagePageResponse;
 import com.imap143.api.dto.response.ChatMessageResponse;
 import com.imap143.application.dto.ChatMessageDto;
+import com.imap143.application.dto.MessageCursor;
+import com.imap143.application.service.MessagePersistencePipeline.DurabilityMode;
+import com.imap143.application.service.RecentMessageCache.CachedPage;
 import com.imap143.domain.entity.ChatMessage;
 import com.imap143.domain.repository.ChatMessageRepository;
 
@@ -17,29 +30,117 @@ import lombok.RequiredArgsConstructor;
 public class ChatMessageService {
 
     private final ChatMessageRepository chatMessageRepository;
+    private final MessagePersistencePipeline persistencePipeline;
+    private final MessageSequencer messageSequencer;
+    private final RecentMessageCache recentMessageCache;
+    private final LatencyTracer latencyTracer;
+    private final ImageVariantService imageVariantService;
+    private static final Logger log = LoggerFactory.getLogger(ChatMessageService.class);
+    private static final int MAX_PAGE_SIZE = 200;
 
+    @Value("${chat.persistence.durability:ACK_AFTER_BROADCAST}")
+    private DurabilityMode durabilityMode;
+
+    // Stamps id, timestamp and room sequence on the server and queues the message for batched persistence
     public ChatMessageResponse saveMessage(ChatMessageDto messageDto) {
-        ChatMessage message = new ChatMessage();
-        message.setRoomId(messageDto.getRoomId());
-        message.setSenderId(messageDto.getSenderId());
-        message.setSenderName(messageDto.getSenderName());
-        message.setContent(messageDto.getContent());
-        message.setType(messageDto.getType());
-        message.setTimestamp(messageDto.getTimestamp());
-        message.setImageUrl(messageDto.getImageUrl());
-        
-        ChatMessage savedMessage = chatMessageRepository.save(message);
-        return ChatMessageResponse.from(savedMessage);
+        ChatMessage message = toMessage(messageDto);
+        return messageSequencer.runSequenced(message.getRoomId(), sequence -> {
+            message.setSequence(sequence);
+            persistencePipeline.enqueue(message);
+            return cacheMessage(message);
+        });
     }
 
-    public List<ChatMessageResponse> getRoomMessages(String roomId) {
-        List<ChatMessage> messages = chatMessageRepository.findByRoomIdOrderByTimestampAsc(roomId);
-        return messages.stream()
-            .map(ChatMessageResponse::from)
-            .toList();
+    public void publishMessage(ChatMessageDto messageDto, Consumer<ChatMessageResponse> broadcaster) {
+        ChatMessage message = toMessage(messageDto);
+        messageSequencer.runSequenced(message.getRoomId(), sequence -> {
+            message.setSequence(sequence);
+            LatencyTracer.Trace trace = latencyTracer.current();
+            long enqueuedAt = System.nanoTime();
+            CompletableFuture<Void> persisted = persistencePipeline.enqueue(message);
+            if (trace != null) {
+                persisted.thenRun(() -> latencyTracer.record(trace, LatencyTracer.Stage.PERSISTENCE, System.nanoTime() - enqueuedAt));
+            }
+            ChatMessageResponse response = cacheMessage(message);
+
+            if (durabilityMode == DurabilityMode.ACK_AFTER_PERSIST) {
+                // The pipeline completes futures in queue order, which is sequence order
+                persisted.thenRun(() -> latencyTracer.runTraced(trace, () -> broadcaster.accept(response)))
+                    .exceptionally(e -> {
+                        // Cancelled means the room was deleted before the batch was written
+                        if (!(e instanceof CancellationException || e.getCause() instanceof CancellationException)) {
+                            log.error("Message {} was not persisted and will not be broadcast", response.getId(), e);
+                        }
+                        return null;
+                    });
+            } else {
+                broadcaster.accept(response);
+            }
+            return response;
+        });
+    }
+
+    public ChatMessagePageResponse getRoomMessages(String roomId, String before, String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean forward = after != null;
+
+        // One extra row tells us whether another page exists without a count query
+        List<ChatMessage> messages;
+        if (forward) {
+            MessageCursor cursor = MessageCursor.decode(after);
+            messages = chatMessageRepository.findPageAfter(roomId, cursor.getTimestamp(), cursor.getId(), pageSize + 1);
+        } else if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            messages = chatMessageRepository.findPageBefore(roomId, cursor.getTimestamp(), cursor.getId(), pageSize + 1);
+        } else {
+            return getLatestRoomMessages(roomId, pageSize);
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        List<ChatMessage> page = new ArrayList<>(hasMore ? messages.subList(0, pageSize) : messages);
+        if (!forward) {
+            Collections.reverse(page);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            ChatMessage edge = forward ? page.get(page.size() - 1) : page.get(0);
+            nextCursor = MessageCursor.of(edge).encode();
+        }
+        return ChatMessagePageResponse.of(ChatMessageResponse.fromList(page), nextCursor, hasMore);
+    }
+
+    // Join-time history: served from the recent-message cache, seeding it from MongoDB on a miss
+    private ChatMessagePageResponse getLatestRoomMessages(String roomId, int pageSize) {
+        CachedPage cached = recentMessageCache.latest(roomId, pageSize);
+        if (cached != null) {
+            String nextCursor = null;
+            if (cached.hasMore() && !cached.messages().isEmpty()) {
+                ChatMessageResponse edge = cached.messages().get(0);
+                nextCursor = new MessageCursor(edge.getTimestamp(), edge.getId()).encode();
+            }
+            return ChatMessagePageResponse.of(cached.messages(), nextCursor, cached.hasMore());
+        }
+
+        long latestSequence = messageSequencer.currentSequence(roomId);
+        int fetchSize = Math.max(pageSize + 1, recentMessageCache.getCapacity());
+        List<ChatMessage> newestFirst = chatMessageRepository.findPageBefore(roomId, null, null, fetchSize);
+        List<ChatMessage> ascending = new ArrayList<>(newestFirst);
+        Collections.reverse(ascending);
+        recentMessageCache.seed(roomId, ChatMessageResponse.fromList(ascending), newestFirst.size() < fetchSize, latestSequence);
+
+        boolean hasMore = newestFirst.size() > pageSize;
+        List<ChatMessage> page = new ArrayList<>(newestFirst.subList(0, Math.min(pageSize, newestFirst.size())));
+        Collections.reverse(page);
+        String nextCursor = hasMore ? MessageCursor.of(page.get(0)).encode() : null;
+        return ChatMessagePageResponse.of(ChatMessageResponse.fromList(page), nextCursor, hasMore);
     }
 
     public List<ChatMessageResponse> getRoomMessagesSince(String roomId, long timestamp) {
+        CachedPage cached = recentMessageCache.since(roomId, timestamp);
+        if (cached != null) {
+            return cached.messages();
+        }
         List<ChatMessage> messages = chatMessageRepository
             .findByRoomIdAndTimestampGreaterThanOrderByTimestampAsc(roomId, timestamp);
         return messages.stream()
@@ -47,7 +148,49 @@ public class ChatMessageService {
             .toList();
     }
 
+    public ChatMessagePageResponse getRoomMessagesAfterSequence(String roomId, long afterSequence, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        CachedPage cached = recentMessageCache.afterSequence(roomId, afterSequence, pageSize);
+        if (cached != null) {
+            return ChatMessagePageResponse.of(cached.messages(), null, cached.hasMore());
+        }
+        List<ChatMessage> messages = chatMessageRepository
+            .findByRoomIdAndSequenceGreaterThanOrderBySequenceAsc(roomId, afterSequence, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = messages.size() > pageSize;
+        List<ChatMessage> page = hasMore ? messages.subList(0, pageSize) : messages;
+        return ChatMessagePageResponse.of(ChatMessageResponse.fromList(page), null, hasMore);
+    }
+
     public void deleteMessage(String roomId) {
+        // Messages are enqueued under the room's sequence lock, so none of the room's can be between taking
+        // its pipeline ticket and reaching the queue while it is discarded
+        messageSequencer.runExclusive(roomId, () -> persistencePipeline.discardRoom(roomId));
+        messageSequencer.reset(roomId);
+        recentMessageCache.evict(roomId);
         chatMessageRepository.deleteByRoomId(roomId);
     }
-} 
\ No newline at end of file
+
+    private ChatMessageResponse cacheMessage(ChatMessage message) {
+        ChatMessageResponse response = ChatMessageResponse.from(message);
+        recentMessageCache.append(response);
+        return response;
+    }
+
+    private ChatMessage toMessage(ChatMessageDto messageDto) {
+        ChatMessage message = new ChatMessage();
+        message.setId(new ObjectId().toHexString());
+        message.setRoomId(messageDto.getRoomId());
+        message.setSenderId(messageDto.getSenderId());
+        message.setSenderName(messageDto.getSenderName());
+        message.setContent(messageDto.getContent());
+        message.setType(messageDto.getType());
+        message.setTimestamp(System.currentTimeMillis());
+        message.setImageUrl(messageDto.getImageUrl());
+        ImageVariantService.VariantUrls variants = imageVariantService.variantUrls(messageDto.getImageUrl());
+        if (variants != null) {
+            message.setThumbnailUrl(variants.thumbnailUrl());
+            message.setMediumUrl(variants.mediumUrl());
+        }
+        return message;
+    }
+}
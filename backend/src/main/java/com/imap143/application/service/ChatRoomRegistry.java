@@ -0,0 +1,174 @@
+package com.imap143.application.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.imap143.domain.entity.ChatRoom;
+import com.imap143.domain.repository.ChatRoomRepository;
+import com.imap143.domain.repository.ParticipantChange;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class ChatRoomRegistry {
+
+    private final ChatRoomRepository chatRoomRepository;
+    private static final Logger log = LoggerFactory.getLogger(ChatRoomRegistry.class);
+
+    private final Map<String, ChatRoom> rooms = new ConcurrentHashMap<>(); // roomId -> room
+    private final Map<String, Set<String>> userRooms = new ConcurrentHashMap<>(); // userId -> active roomIds
+    private final Queue<ParticipantChange> pendingChanges = new ConcurrentLinkedQueue<>();
+    private List<ParticipantChange> failedChanges = List.of();
+
+    @PostConstruct
+    public void loadRooms() {
+        chatRoomRepository.findAll().forEach(this::register);
+        log.info("Chat room registry loaded {} rooms from MongoDB", rooms.size());
+    }
+
+    public void register(ChatRoom room) {
+        rooms.put(room.getId(), room);
+        synchronized (room) {
+            room.getActiveParticipants().forEach(userId -> linkUser(userId, room.getId()));
+        }
+    }
+
+    public ChatRoom getRoom(String roomId) {
+        ChatRoom room = rooms.get(roomId);
+        if (room == null) {
+            throw new RuntimeException("Chat room not found: " + roomId);
+        }
+        return room;
+    }
+
+    public ChatRoom findRoom(String roomId) {
+        return rooms.get(roomId);
+    }
+
+    public boolean contains(String roomId) {
+        return rooms.containsKey(roomId);
+    }
+
+    public Collection<ChatRoom> getRooms() {
+        return rooms.values();
+    }
+
+    // Callers record changes while holding the room lock, so per-room order is preserved
+    public void recordChange(ParticipantChange change) {
+        pendingChanges.add(change);
+    }
+
+    // Returns false when the room was already gone
+    public boolean remove(String roomId) {
+        ChatRoom room = rooms.remove(roomId);
+        if (room == null) {
+            return false;
+        }
+        synchronized (room) {
+            room.getActiveParticipants().forEach(userId -> unlinkUser(userId, roomId));
+        }
+        return true;
+    }
+
+    // Membership index kept in step with activeParticipants by callers holding the room lock
+    public void linkUser(String userId, String roomId) {
+        userRooms.compute(userId, (id, roomIds) -> {
+            if (roomIds == null) {
+                roomIds = ConcurrentHashMap.newKeySet();
+            }
+            roomIds.add(roomId);
+            return roomIds;
+        });
+    }
+
+    public void unlinkUser(String userId, String roomId) {
+        userRooms.computeIfPresent(userId, (id, roomIds) -> {
+            roomIds.remove(roomId);
+            return roomIds.isEmpty() ? null : roomIds;
+        });
+    }
+
+    public Set<String> getActiveRoomIds(String userId) {
+        Set<String> roomIds = userRooms.get(userId);
+        return roomIds == null ? Collections.emptySet() : Set.copyOf(roomIds);
+    }
+
+    // Copy taken under the room lock so callers never see the lists mid-mutation
+    public ChatRoom snapshot(ChatRoom room) {
+        synchronized (room) {
+            ChatRoom copy = new ChatRoom();
+            copy.setId(room.getId());
+            copy.setName(room.getName());
+            copy.setCreatedBy(room.getCreatedBy());
+            copy.setCreatedAt(room.getCreatedAt());
+            copy.setParticipants(new ArrayList<>(room.getParticipants()));
+            copy.setActiveParticipants(new ArrayList<>(room.getActiveParticipants()));
+            copy.setParticipantVersion(room.getParticipantVersion());
+            return copy;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.room.write-behind-interval-ms:200}")
+    public synchronized void flush() {
+        // Failed batches are replayed first; $addToSet and $pull make the replay idempotent
+        List<ParticipantChange> changes = new ArrayList<>(failedChanges);
+        ParticipantChange change;
+        while ((change = pendingChanges.poll()) != null) {
+            changes.add(change);
+        }
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        try {
+            chatRoomRepository.applyParticipantChanges(changes);
+            failedChanges = List.of();
+            log.debug("Flushed {} participant changes", changes.size());
+        } catch (BulkOperationException e) {
+            // MongoDB rejected a write rather than being unreachable; replaying the batch would hit it on every run
+            log.warn("Participant change batch of {} rejected, applying changes one at a time", changes.size(), e);
+            failedChanges = applyIndividually(changes);
+        } catch (RuntimeException e) {
+            log.error("Chat room write-behind flush failed, retrying on next run", e);
+            failedChanges = changes;
+        }
+    }
+
+    // Drops each change MongoDB rejects; returns the rest of the batch if the database becomes unreachable
+    private List<ParticipantChange> applyIndividually(List<ParticipantChange> changes) {
+        for (int i = 0; i < changes.size(); i++) {
+            ParticipantChange change = changes.get(i);
+            try {
+                chatRoomRepository.applyParticipantChanges(List.of(change));
+            } catch (BulkOperationException e) {
+                log.error("Dropping participant change {} rejected by MongoDB", change, e);
+            } catch (RuntimeException e) {
+                log.error("Chat room write-behind flush failed, retrying on next run", e);
+                return new ArrayList<>(changes.subList(i, changes.size()));
+            }
+        }
+        return List.of();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
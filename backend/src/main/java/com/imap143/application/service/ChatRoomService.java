@@ -1,7 +1,10 @@
 package com.imap143.application.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -11,8 +14,10 @@ import org.springframework.stereotype.Service;
 import com.imap143.api.dto.request.CreateRoomRequest;
 import com.imap143.api.dto.response.ChatRoomResponse;
 import com.imap143.application.dto.ChatRoomDto;
+import com.imap143.application.dto.ParticipantEvent;
 import com.imap143.domain.entity.ChatRoom;
 import com.imap143.domain.repository.ChatRoomRepository;
+import com.imap143.domain.repository.ParticipantChange;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,6 +26,8 @@ import lombok.RequiredArgsConstructor;
 public class ChatRoomService {
     
     private final ChatRoomRepository chatRoomRepository;
+    private final ChatRoomRegistry chatRoomRegistry;
+    private final MessageFanout messageFanout;
     private static final Logger log = LoggerFactory.getLogger(ChatRoomService.class);
     
     public ChatRoomResponse createRoom(CreateRoomRequest request, String userId) {
@@ -41,14 +48,13 @@ public class ChatRoomService {
         chatRoom.setActiveParticipants(activeParticipants);
         
         ChatRoom savedRoom = chatRoomRepository.save(chatRoom);
-        return ChatRoomResponse.from(ChatRoomDto.from(savedRoom));
+        chatRoomRegistry.register(savedRoom);
+        return toResponse(savedRoom);
     }
     
     public List<ChatRoomResponse> getRooms() {
-        List<ChatRoom> rooms = chatRoomRepository.findAll();
-        log.info("All chat rooms retrieved from MongoDB: {}", rooms);
-        
-        return rooms.stream()
+        return chatRoomRegistry.getRooms().stream()
+            .map(chatRoomRegistry::snapshot)
             .filter(room -> !room.getActiveParticipants().isEmpty())
             .map(ChatRoomDto::from)
             .map(ChatRoomResponse::from)
@@ -56,66 +62,86 @@ public class ChatRoomService {
     }
 
     public ChatRoomResponse getRoom(String roomId) {
-        ChatRoom room = chatRoomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Chat room not found: " + roomId));
-        return ChatRoomResponse.from(ChatRoomDto.from(room));
+        return toResponse(chatRoomRegistry.getRoom(roomId));
+    }
+
+    public ChatRoomResponse findRoom(String roomId) {
+        ChatRoom room = chatRoomRegistry.findRoom(roomId);
+        return room == null ? null : toResponse(room);
     }
     
     public ChatRoomResponse joinRoom(String roomId, String userId) {
-        ChatRoom room = chatRoomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Chat room not found: " + roomId));
+        ChatRoom room = chatRoomRegistry.getRoom(roomId);
 
         synchronized (room) {
+            if (!chatRoomRegistry.contains(roomId)) {
+                throw new RuntimeException("Chat room not found: " + roomId);
+            }
             List<String> activeParticipants = room.getActiveParticipants();
             if (!activeParticipants.contains(userId)) {
                 activeParticipants.add(userId);
+                chatRoomRegistry.linkUser(userId, roomId);
                 if (!room.getParticipants().contains(userId)) {
                     room.getParticipants().add(userId);
                 }
+                chatRoomRegistry.recordChange(ParticipantChange.join(roomId, userId));
+                room.setParticipantVersion(room.getParticipantVersion() + 1);
+                publishParticipantEvent(ParticipantEvent.joined(roomId, room.getParticipantVersion(), List.of(userId)));
                 log.info("User {} joined chat room {}. Current participants: {}",
                         userId, roomId, activeParticipants);
-                return ChatRoomResponse.from(ChatRoomDto.from(chatRoomRepository.save(room)));
             }
+            return toResponse(room);
         }
-        return ChatRoomResponse.from(ChatRoomDto.from(chatRoomRepository.save(room)));
     }
     
     public ChatRoomResponse leaveRoom(String roomId, String userId) {
-        ChatRoom room = chatRoomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Chat room not found: " + roomId));
+        ChatRoom room = chatRoomRegistry.getRoom(roomId);
         
         synchronized (room) {
-            room.getActiveParticipants().remove(userId);
-            room.getParticipants().remove(userId);
+            boolean wasActive = room.getActiveParticipants().remove(userId);
+            boolean wasParticipant = room.getParticipants().remove(userId);
+            chatRoomRegistry.unlinkUser(userId, roomId);
+            chatRoomRegistry.recordChange(ParticipantChange.leave(roomId, userId));
+            if (wasActive || wasParticipant) {
+                room.setParticipantVersion(room.getParticipantVersion() + 1);
+                publishParticipantEvent(ParticipantEvent.left(roomId, room.getParticipantVersion(), List.of(userId)));
+            }
             log.info("User {} left chat room {}. Remaining participants: {}", 
                 userId, roomId, room.getActiveParticipants());
-                return ChatRoomResponse.from(ChatRoomDto.from(chatRoomRepository.save(room)));
+            return toResponse(room);
         }
     }
     
     public List<ChatRoomResponse> getUserRooms(String userId) {
-        return chatRoomRepository.findByParticipantsContaining(userId)
-                .stream()
+        return chatRoomRegistry.getRooms().stream()
+                .map(chatRoomRegistry::snapshot)
+                .filter(room -> room.getParticipants().contains(userId))
                 .map(ChatRoomDto::from)
                 .map(ChatRoomResponse::from)
                 .toList();
     }
 
     public void deleteRoom(String roomId) {
-        chatRoomRepository.deleteById(roomId);
+        chatRoomRegistry.remove(roomId);
+        chatRoomRegistry.recordChange(ParticipantChange.delete(roomId));
         log.info("Chat room {} deleted", roomId);
     }
 
     public List<ChatRoomDto> getRoomsByUserId(String userId) {
-        return chatRoomRepository.findByActiveParticipantsContaining(userId)
-                .stream()
+        return getActiveRoomIds(userId).stream()
+                .map(chatRoomRegistry::findRoom)
+                .filter(Objects::nonNull)
+                .map(chatRoomRegistry::snapshot)
                 .map(ChatRoomDto::from)
                 .toList();
     }
+
+    public Set<String> getActiveRoomIds(String userId) {
+        return chatRoomRegistry.getActiveRoomIds(userId);
+    }
     
     public List<String> getRoomParticipants(String roomId) {
-        ChatRoom room = chatRoomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Chat room not found: " + roomId));
+        ChatRoom room = chatRoomRegistry.getRoom(roomId);
         synchronized (room) {
             List<String> participants = room.getActiveParticipants();
             log.info("Current participants in chat room {}: {}", roomId, participants);
@@ -124,19 +150,54 @@ public class ChatRoomService {
     }
     
     public void removeFromActiveParticipants(String roomId, String userId) {
-        ChatRoom room = chatRoomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Chat room not found: " + roomId));
+        removeFromActiveParticipants(roomId, List.of(userId));
+    }
+    
+    // Removes several users under one lock acquisition and returns the room as it is afterwards
+    public ChatRoomResponse removeFromActiveParticipants(String roomId, Collection<String> userIds) {
+        ChatRoom room = chatRoomRegistry.getRoom(roomId);
         synchronized (room) {
-            room.getActiveParticipants().remove(userId);
+            List<String> removed = new ArrayList<>();
+            for (String userId : userIds) {
+                if (room.getActiveParticipants().remove(userId)) {
+                    chatRoomRegistry.unlinkUser(userId, roomId);
+                    removed.add(userId);
+                }
+                // Persisted as $pull plus a conditional delete of the room once it is empty
+                chatRoomRegistry.recordChange(ParticipantChange.deactivate(roomId, userId));
+            }
+            if (!removed.isEmpty()) {
+                room.setParticipantVersion(room.getParticipantVersion() + 1);
+                if (!room.getActiveParticipants().isEmpty()) {
+                    publishParticipantEvent(ParticipantEvent.left(roomId, room.getParticipantVersion(), removed));
+                }
+            }
             
             if (room.getActiveParticipants().isEmpty()) {
-                chatRoomRepository.delete(room);
-                log.info("Empty chat room deleted: {}", roomId);
+                // Late callers may still hold the room after it was removed; only the one that removes it deletes it
+                if (chatRoomRegistry.remove(roomId)) {
+                    chatRoomRegistry.recordChange(ParticipantChange.delete(roomId));
+                    log.info("Empty chat room deleted: {}", roomId);
+                }
             } else {
-                chatRoomRepository.save(room);
-                log.info("User {} removed from active participants in chat room {}. Current participants: {}", 
-                    userId, roomId, room.getActiveParticipants());
+                log.info("Users {} removed from active participants in chat room {}. Current participants: {}", 
+                    userIds, roomId, room.getActiveParticipants());
             }
+            return toResponse(room);
         }
     }
-} 
\ No newline at end of file
+
+    public static String participantTopic(String roomId) {
+        return "/topic/room." + roomId + ".participants";
+    }
+
+    // Sent under the room lock by every path that bumps the roster version, so subscribers see each version
+    // once and in order. A dropped delta shows up as a version gap and the client resyncs from a snapshot.
+    private void publishParticipantEvent(ParticipantEvent event) {
+        messageFanout.send(participantTopic(event.getRoomId()), event, MessageFanout.Priority.LOW);
+    }
+
+    private ChatRoomResponse toResponse(ChatRoom room) {
+        return ChatRoomResponse.from(ChatRoomDto.from(chatRoomRegistry.snapshot(room)));
+    }
+}
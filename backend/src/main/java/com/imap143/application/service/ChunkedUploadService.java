@@ -0,0 +1,296 @@
+package com.imap143.application.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import lombok.RequiredArgsConstructor;
+
+// Resumable uploads: init preallocates {uploadId}.chunked in the store's temp directory, each chunk is written
+// at its own offset with positional NIO writes (so chunks may arrive in parallel and in any order), and
+// complete hands the assembled file to FileStorageService, which yields the usual /uploads URL.
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadService {
+
+    public static final String PART_SUFFIX = ".chunked";
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f-]{36}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileStorageService fileStorageService;
+
+    @Value("${file.upload.chunked.max-bytes:2147483648}")
+    private long maxBytes;
+
+    @Value("${file.upload.chunked.chunk-size:8388608}")
+    private int chunkSize;
+
+    @Value("${file.upload.chunked.max-sessions:256}")
+    private int maxSessions;
+
+    @Value("${file.upload.chunked.session-ttl-ms:86400000}")
+    private long sessionTtlMs;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // uploadId -> session
+    private final AtomicInteger activeWrites = new AtomicInteger();
+
+    public record UploadStatus(String uploadId, long size, int chunkSize, int chunkCount, long receivedBytes,
+            List<Integer> missingChunks) {
+    }
+
+    // Chunks are put under the read lock so several can be written at once; complete and abort take the write lock
+    private static final class Session {
+        private final String uploadId;
+        private final String roomId;
+        private final String userId;
+        private final String fileName;
+        private final String contentType;
+        private final long size;
+        private final int chunkCount;
+        private final Path file;
+        private final BitSet received;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile long lastTouched = System.currentTimeMillis();
+        private boolean closed;
+
+        private Session(String uploadId, String roomId, String userId, String fileName, String contentType,
+                long size, int chunkCount, Path file) {
+            this.uploadId = uploadId;
+            this.roomId = roomId;
+            this.userId = userId;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.size = size;
+            this.chunkCount = chunkCount;
+            this.file = file;
+            this.received = new BitSet(chunkCount);
+        }
+    }
+
+    public UploadStatus init(String roomId, String userId, String fileName, String contentType, long size) {
+        FileStorageService.requireValidRoomId(roomId);
+        if (size <= 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (size > maxBytes) {
+            throw new MaxUploadSizeExceededException(maxBytes);
+        }
+        if (sessions.size() >= maxSessions) {
+            throw new IllegalStateException("Too many uploads in progress");
+        }
+        Path tempDir = fileStorageService.getRoot().resolve(FileStorageService.TEMP_DIR);
+        String uploadId = UUID.randomUUID().toString();
+        Path file = tempDir.resolve(uploadId + PART_SUFFIX);
+        try {
+            if (tempDir.toFile().getUsableSpace() < size) {
+                throw new IllegalStateException("Not enough disk space for " + size + " bytes");
+            }
+            // Sized up front so chunks can land at any offset; sparse where the filesystem allows
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.setLength(size);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create upload " + uploadId, e);
+        }
+        int chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+        Session session = new Session(uploadId, roomId, userId, fileName, contentType, size, chunkCount, file);
+        sessions.put(uploadId, session);
+        log.info("Chunked upload {} started by {} in room {}: {} bytes in {} chunks", uploadId, userId, roomId, size, chunkCount);
+        return status(session);
+    }
+
+    // Writes one chunk at offset; offsets must be chunk-aligned and every chunk but the last is exactly chunkSize
+    public UploadStatus putChunk(String uploadId, String userId, long offset, InputStream body) throws IOException {
+        Session session = session(uploadId, userId);
+        if (offset < 0 || offset >= session.size || offset % chunkSize != 0) {
+            throw new IllegalArgumentException("Offset " + offset + " is not a chunk boundary");
+        }
+        int index = (int) (offset / chunkSize);
+        long expected = Math.min(chunkSize, session.size - offset);
+
+        session.lock.readLock().lock();
+        try {
+            if (session.closed) {
+                throw new IllegalStateException("Upload " + uploadId + " is no longer open");
+            }
+            long written;
+            activeWrites.incrementAndGet();
+            try {
+                written = write(session.file, offset, expected, body);
+            } finally {
+                activeWrites.decrementAndGet();
+            }
+            if (written != expected) {
+                throw new IllegalArgumentException("Chunk " + index + " has " + written + " bytes, expected " + expected);
+            }
+            synchronized (session.received) {
+                session.received.set(index);
+            }
+            session.lastTouched = System.currentTimeMillis();
+        } finally {
+            session.lock.readLock().unlock();
+        }
+        return status(session);
+    }
+
+    public UploadStatus getStatus(String uploadId, String userId) {
+        Session session = session(uploadId, userId);
+        session.lastTouched = System.currentTimeMillis();
+        return status(session);
+    }
+
+    // Returns null while chunks are missing; the caller reports them from getStatus
+    public FileStorageService.StoredFile complete(String uploadId, String userId) {
+        Session session = session(uploadId, userId);
+        session.lock.writeLock().lock();
+        try {
+            if (session.closed) {
+                throw new IllegalStateException("Upload " + uploadId + " is no longer open");
+            }
+            if (session.received.cardinality() < session.chunkCount) {
+                return null;
+            }
+            // Closed to chunks and to a second complete, but still registered so the janitor leaves the file alone
+            session.closed = true;
+        } finally {
+            session.lock.writeLock().unlock();
+        }
+        FileStorageService.StoredFile stored;
+        try {
+            stored = fileStorageService.adopt(session.roomId, session.file, session.fileName, session.contentType);
+        } catch (RuntimeException e) {
+            reopen(session);
+            throw e;
+        }
+        sessions.remove(uploadId);
+        log.info("Chunked upload {} completed as {}", uploadId, stored.url());
+        return stored;
+    }
+
+    public void abort(String uploadId, String userId) {
+        close(session(uploadId, userId));
+    }
+
+    public int getActiveWrites() {
+        return activeWrites.get();
+    }
+
+    public boolean isActive(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(PART_SUFFIX) && sessions.containsKey(name.substring(0, name.length() - PART_SUFFIX.length()));
+    }
+
+    @Scheduled(fixedDelayString = "${file.upload.chunked.cleanup-interval-ms:600000}")
+    public void expireIdleSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTtlMs;
+        sessions.values().stream()
+            .filter(session -> session.lastTouched < cutoff)
+            .forEach(session -> {
+                log.info("Chunked upload {} expired after {} ms idle", session.uploadId, sessionTtlMs);
+                close(session);
+            });
+    }
+
+    private void close(Session session) {
+        session.lock.writeLock().lock();
+        try {
+            if (session.closed) {
+                return;
+            }
+            session.closed = true;
+            sessions.remove(session.uploadId);
+            Files.deleteIfExists(session.file);
+        } catch (IOException e) {
+            log.warn("Could not delete chunked upload {}", session.file, e);
+        } finally {
+            session.lock.writeLock().unlock();
+        }
+    }
+
+    // A failed complete can be retried as long as the assembled file is still there
+    private void reopen(Session session) {
+        session.lock.writeLock().lock();
+        try {
+            if (Files.exists(session.file)) {
+                session.closed = false;
+                session.lastTouched = System.currentTimeMillis();
+            } else {
+                log.warn("Chunked upload {} lost its file while completing", session.uploadId);
+                sessions.remove(session.uploadId);
+            }
+        } finally {
+            session.lock.writeLock().unlock();
+        }
+    }
+
+    private Session session(String uploadId, String userId) {
+        Session session = uploadId == null || !UPLOAD_ID.matcher(uploadId).matches() ? null : sessions.get(uploadId);
+        // Someone else's upload id is reported exactly like an unknown one
+        if (session == null || !session.userId.equals(userId)) {
+            throw new NoSuchElementException("Unknown upload " + uploadId);
+        }
+        return session;
+    }
+
+    private UploadStatus status(Session session) {
+        List<Integer> missing = new ArrayList<>();
+        long receivedBytes = 0;
+        synchronized (session.received) {
+            for (int index = 0; index < session.chunkCount; index++) {
+                if (session.received.get(index)) {
+                    receivedBytes += Math.min(chunkSize, session.size - (long) index * chunkSize);
+                } else {
+                    missing.add(index);
+                }
+            }
+        }
+        return new UploadStatus(session.uploadId, session.size, chunkSize, session.chunkCount, receivedBytes, missing);
+    }
+
+    // Reads at most expected + 1 bytes, so an oversized chunk is detected without writing past its slot
+    private static long write(Path file, long offset, long expected, InputStream body) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (written <= expected) {
+                int limit = (int) Math.min(buffer.capacity(), expected + 1 - written);
+                int read = body.read(buffer.array(), 0, limit);
+                if (read == -1) {
+                    break;
+                }
+                if (written + read > expected) {
+                    return written + read;
+                }
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, offset + written + buffer.position());
+                }
+                written += read;
+            }
+        }
+        return written;
+    }
+}
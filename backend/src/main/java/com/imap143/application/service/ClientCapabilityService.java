@@ -0,0 +1,81 @@
+package com.imap143.application.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Optional protocol features a client announces in its CONNECT frame, e.g. "X-Capabilities: ice-batch"
+@Service
+@Slf4j
+public class ClientCapabilityService {
+    public static final String HEADER = "X-Capabilities";
+    public static final String ICE_BATCH = "ice-batch";
+    public static final String CONTENT_TYPE_HEADER = "X-Content-Type";
+    public static final MimeType CBOR = new MimeType("application", "cbor");
+
+    // Negotiated per connection, so a user's tabs can run different client versions
+    private final Map<String, Map<String, Set<String>>> sessionCapabilities = new ConcurrentHashMap<>(); // userId -> (sessionId -> capabilities)
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet(); // sessionIds that negotiated CBOR
+
+    public void register(String userId, String sessionId, String header) {
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        Set<String> capabilities = header == null ? Set.of() : Arrays.stream(header.split(","))
+            .map(String::trim)
+            .filter(capability -> !capability.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+        sessionCapabilities.compute(userId, (id, sessions) -> {
+            if (sessions == null) {
+                sessions = new ConcurrentHashMap<>();
+            }
+            sessions.put(sessionId, capabilities);
+            return sessions;
+        });
+        log.info("Client capabilities for {} on session {}: {}", userId, sessionId, capabilities);
+    }
+
+    // Frames addressed to a user reach all of their sessions, so a capability counts only if every one has it
+    public boolean supports(String userId, String capability) {
+        Map<String, Set<String>> sessions = sessionCapabilities.get(userId);
+        return sessions != null && !sessions.isEmpty()
+            && sessions.values().stream().allMatch(capabilities -> capabilities.contains(capability));
+    }
+
+    // Codec is per connection: "X-Content-Type: application/cbor" on CONNECT, JSON otherwise
+    public void registerCodec(String sessionId, String header) {
+        if (sessionId == null || header == null || header.isBlank()) {
+            return;
+        }
+        try {
+            if (CBOR.equalsTypeAndSubtype(MimeType.valueOf(header))) {
+                cborSessions.add(sessionId);
+                log.info("Session {} negotiated CBOR frames", sessionId);
+            }
+        } catch (InvalidMimeTypeException e) {
+            log.warn("Ignoring invalid {} header on session {}: {}", CONTENT_TYPE_HEADER, sessionId, header);
+        }
+    }
+
+    public void removeSession(String userId, String sessionId) {
+        cborSessions.remove(sessionId);
+        if (userId != null) {
+            sessionCapabilities.computeIfPresent(userId, (id, sessions) -> {
+                sessions.remove(sessionId);
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+    }
+
+    public boolean prefersCbor(String sessionId) {
+        return sessionId != null && cborSessions.contains(sessionId);
+    }
+}
@@ -0,0 +1,61 @@
+package com.imap143.application.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class DisconnectCleanupService {
+
+    private final WebRTCService webRTCService;
+    private final ChatRoomService chatRoomService;
+    private static final Logger log = LoggerFactory.getLogger(DisconnectCleanupService.class);
+
+    private final Set<String> pendingUserIds = ConcurrentHashMap.newKeySet();
+
+    public void enqueue(String userId) {
+        pendingUserIds.add(userId);
+    }
+
+    // One pass per interval: a user disconnecting several sockets is handled once,
+    // and every room is updated and broadcast once no matter how many members left it.
+    @Scheduled(fixedDelayString = "${chat.disconnect.cleanup-interval-ms:100}")
+    public void drain() {
+        List<String> userIds = new ArrayList<>();
+        for (Iterator<String> it = pendingUserIds.iterator(); it.hasNext();) {
+            userIds.add(it.next());
+            it.remove();
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<String>> leaversByRoom = new HashMap<>();
+        for (String userId : userIds) {
+            for (String roomId : chatRoomService.getActiveRoomIds(userId)) {
+                leaversByRoom.computeIfAbsent(roomId, k -> new ArrayList<>()).add(userId);
+            }
+        }
+
+        leaversByRoom.forEach((roomId, leavers) -> {
+            try {
+                webRTCService.removeParticipants(roomId, leavers);
+            } catch (RuntimeException e) {
+                log.warn("Disconnect cleanup failed for room {} and users {}", roomId, leavers, e);
+            }
+        });
+        log.info("Disconnect cleanup processed {} users across {} rooms", userIds.size(), leaversByRoom.size());
+    }
+}
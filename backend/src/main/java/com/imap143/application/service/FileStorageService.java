@@ -1,61 +1,333 @@
 package com.imap143.application.service;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.imap143.application.dto.StorageStats;
+
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 
+// Content-addressed upload store. Each distinct file is written once to .blobs/{h0h1}/{sha256}{ext} while
+// it is being hashed; a room gets a hard link {roomId}/{sha256}{ext} to the blob instead of its own copy.
 @Service
+@RequiredArgsConstructor
 public class FileStorageService {
 
+    public static final String BLOB_DIR = ".blobs";
+    public static final String TEMP_DIR = ".tmp";
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+    private static final Pattern ROOM_ID = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[A-Za-z0-9]{1,8}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    @Value("${file.upload.max-bytes:10485760}")
+    private long maxBytes;
+
+    @Value("${file.upload.memory-threshold-bytes:262144}")
+    private long memoryThreshold;
+
+    private final ImageVariantService imageVariantService;
+    private Path root;
+    private volatile boolean hardLinks = true;
+    private volatile boolean hardLinksVerified;
+    private final AtomicInteger activeUploads = new AtomicInteger();
+    private final LongAdder uploads = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    public record StoredFile(String url, String hash, long size, boolean deduplicated) {
+    }
+
     @PostConstruct
     public void init() {
         try {
-            Files.createDirectories(Paths.get(uploadDir));
+            root = Paths.get(uploadDir).toAbsolutePath().normalize();
+            Files.createDirectories(root.resolve(BLOB_DIR));
+            Files.createDirectories(root.resolve(TEMP_DIR));
         } catch (IOException e) {
             throw new RuntimeException("Could not create upload directory!", e);
         }
     }
 
+    // Multipart uploads were already spooled by the container; prefer store() with the raw request body
     public String storeFile(MultipartFile file, String roomId) {
+        try (InputStream content = file.getInputStream()) {
+            return store(roomId, content, file.getOriginalFilename(), file.getContentType()).url();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename(), ex);
+        }
+    }
+
+    public StoredFile store(String roomId, InputStream content, String fileName, String contentType) {
+        requireValidRoomId(roomId);
+        String extension = extension(fileName, contentType);
+        Path temp = root.resolve(TEMP_DIR).resolve(UUID.randomUUID() + ".part");
+        activeUploads.incrementAndGet();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Spool spool = spool(content, temp, digest);
+            if (spool.size() == 0) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            return commit(roomId, hash, extension, spool, temp);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + fileName, ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            activeUploads.decrementAndGet();
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("Could not delete temporary upload {}", temp, e);
+            }
+        }
+    }
+
+    // Takes ownership of a fully written file under the temp directory, e.g. an assembled chunked upload.
+    // The file is hashed in one sequential pass and linked into the blob store, or deleted if it is a duplicate.
+    public StoredFile adopt(String roomId, Path file, String fileName, String contentType) {
+        requireValidRoomId(roomId);
+        String extension = extension(fileName, contentType);
+        activeUploads.incrementAndGet();
+        boolean adopted = false;
         try {
-            Path uploadPath = Paths.get(uploadDir, roomId);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            String originalFileName = file.getOriginalFilename();
-            String extension = "";
-            
-            if (originalFileName != null && originalFileName.contains(".")) {
-                extension = originalFileName.substring(originalFileName.lastIndexOf("."));
-            } else {
-                String contentType = file.getContentType();
-                if (contentType != null && contentType.contains("image/")) {
-                    extension = "." + contentType.substring(contentType.lastIndexOf("/") + 1);
-                } else {
-                    extension = ".jpg";
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream content = Files.newInputStream(file)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            long size = Files.size(file);
+            if (size == 0) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            // The bytes already hit the disk once when the chunks were written
+            bytesWritten.add(size);
+            StoredFile stored = commit(roomId, HexFormat.of().formatHex(digest.digest()), extension, new Spool(size, null), file);
+            adopted = true;
+            return stored;
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + fileName, ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            activeUploads.decrementAndGet();
+            // Moved into the store, or a duplicate of a blob already there; on failure the caller still owns it
+            if (adopted) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary upload {}", file, e);
                 }
             }
+        }
+    }
 
-            String fileName = UUID.randomUUID().toString() + extension;
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+    // Room ids become directory names under the upload root
+    static void requireValidRoomId(String roomId) {
+        if (roomId == null || !ROOM_ID.matcher(roomId).matches()) {
+            throw new IllegalArgumentException("Invalid room id");
+        }
+    }
 
-            return "/uploads/" + roomId + "/" + fileName;
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not store file " + file.getOriginalFilename(), ex);
+    public Path getRoot() {
+        return root;
+    }
+
+    public Path blobPath(String name) {
+        return root.resolve(BLOB_DIR).resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    public int getActiveUploads() {
+        return activeUploads.get();
+    }
+
+    public StorageStats getStats() {
+        StorageStats stats = new StorageStats();
+        stats.setUploads(uploads.sum());
+        stats.setDeduplicated(deduplicated.sum());
+        stats.setBytesReceived(bytesReceived.sum());
+        stats.setBytesWritten(bytesWritten.sum());
+        return stats;
+    }
+
+    // Body held in memory (memory != null) or spilled to the temp file once it passes the memory threshold
+    private record Spool(long size, byte[] memory) {
+    }
+
+    // Hashes while reading, so the body is read once and a duplicate below the threshold never touches disk
+    private Spool spool(InputStream content, Path temp, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        OutputStream out = memory;
+        long size = 0;
+        try {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new MaxUploadSizeExceededException(maxBytes);
+                }
+                if (out == memory && size > memoryThreshold) {
+                    out = Files.newOutputStream(temp);
+                    memory.writeTo(out);
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            if (out != memory) {
+                out.close();
+            }
+        }
+        if (out == memory) {
+            return new Spool(size, memory.toByteArray());
+        }
+        bytesWritten.add(size);
+        return new Spool(size, null);
+    }
+
+    // Publishes the spooled upload into the blob store unless an identical blob exists, then links it into the room
+    private StoredFile commit(String roomId, String hash, String extension, Spool spool, Path temp) throws IOException {
+        String name = hash + extension;
+        Path blob = blobPath(name);
+        boolean existing = touch(blob);
+        if (!existing) {
+            if (spool.memory() != null) {
+                Files.write(temp, spool.memory());
+                bytesWritten.add(spool.size());
+            }
+            Files.createDirectories(blob.getParent());
+            existing = !publish(temp, blob);
+        }
+        if (existing) {
+            deduplicated.increment();
+        }
+        uploads.increment();
+        bytesReceived.add(spool.size());
+
+        linkIntoRoom(roomId, name, blob);
+        imageVariantService.submit(hash, extension, blob);
+        return new StoredFile("/uploads/" + roomId + "/" + name, hash, spool.size(), existing);
+    }
+
+    // Refreshes an existing blob's mtime so StorageJanitor's grace period covers the reference about to be added
+    private static boolean touch(Path blob) throws IOException {
+        try {
+            Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    // Returns false when an identical concurrent upload published the blob first. ATOMIC_MOVE would silently
+    // replace it on POSIX; a link fails atomically on an existing target and a plain move checks before renaming.
+    // The caller deletes temp, which is still there if it was linked.
+    private boolean publish(Path temp, Path blob) throws IOException {
+        try {
+            if (!tryHardLink(blob, temp)) {
+                Files.move(temp, blob);
+            }
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        }
+    }
+
+    private void linkIntoRoom(String roomId, String name, Path blob) throws IOException {
+        Path roomDir = root.resolve(roomId);
+        Files.createDirectories(roomDir);
+        Path reference = roomDir.resolve(name);
+        if (Files.exists(reference)) {
+            return;
+        }
+        try {
+            if (!tryHardLink(reference, blob)) {
+                Files.createSymbolicLink(reference, roomDir.relativize(blob));
+            }
+        } catch (FileAlreadyExistsException e) {
+            // Same file uploaded to the same room concurrently
+        }
+    }
+
+    // Returns false once the filesystem has shown it has no hard links. Only the first attempt failing with
+    // "not supported" decides that; any other failure (permissions, a full disk, an existing target) is rethrown.
+    private boolean tryHardLink(Path link, Path existing) throws IOException {
+        if (!hardLinks) {
+            return false;
+        }
+        try {
+            Files.createLink(link, existing);
+            hardLinksVerified = true;
+            return true;
+        } catch (UnsupportedOperationException e) {
+            disableHardLinks(e);
+            return false;
+        } catch (FileSystemException e) {
+            String reason = e.getReason();
+            if (hardLinksVerified || e instanceof FileAlreadyExistsException
+                    || reason == null || !reason.toLowerCase().contains("not supported")) {
+                throw e;
+            }
+            disableHardLinks(e);
+            return false;
+        }
+    }
+
+    private void disableHardLinks(Exception cause) {
+        log.warn("Hard links are not available under {}, falling back to symbolic links", root, cause);
+        hardLinks = false;
+    }
+
+    private static String extension(String fileName, String contentType) {
+        if (fileName != null && fileName.contains(".")) {
+            String extension = fileName.substring(fileName.lastIndexOf(".")).toLowerCase();
+            if (EXTENSION.matcher(extension).matches()) {
+                return extension;
+            }
+        }
+        if (contentType != null && contentType.contains("image/")) {
+            String subtype = contentType.substring(contentType.lastIndexOf("/") + 1).toLowerCase();
+            int parameters = subtype.indexOf(';');
+            String extension = "." + (parameters < 0 ? subtype : subtype.substring(0, parameters)).trim();
+            if (EXTENSION.matcher(extension).matches()) {
+                return extension;
+            }
         }
+        return ".jpg";
     }
-} 
\ No newline at end of file
+}
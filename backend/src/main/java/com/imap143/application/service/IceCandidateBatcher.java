@@ -0,0 +1,112 @@
+package com.imap143.application.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+
+import com.imap143.application.dto.ChatMessageDto;
+import com.imap143.application.dto.IceCandidateDto;
+import com.imap143.domain.entity.ChatMessage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+// Coalesces trickle ICE candidates per (sender, target) pair into one ICE_CANDIDATE_BATCH signal
+@Component
+@RequiredArgsConstructor
+public class IceCandidateBatcher {
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ClientCapabilityService clientCapabilityService;
+    private static final Logger log = LoggerFactory.getLogger(IceCandidateBatcher.class);
+    private static final String QUEUE_SIGNAL = "/queue/signal.";
+
+    @Value("${chat.signal.ice-batch-window-ms:20}")
+    private long windowMs;
+
+    private final Map<String, PendingBatch> pending = new ConcurrentHashMap<>(); // "sender->target" -> batch
+    private ScheduledExecutorService scheduler;
+
+    private static final class PendingBatch {
+        private final String roomId;
+        private final String senderId;
+        private final String targetId;
+        private final List<IceCandidateDto> candidates = new ArrayList<>(); // only touched inside pending.compute
+
+        private PendingBatch(String roomId, String senderId, String targetId) {
+            this.roomId = roomId;
+            this.senderId = senderId;
+            this.targetId = targetId;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ice-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        pending.keySet().forEach(this::flush);
+    }
+
+    public void submit(ChatMessageDto.SignalRequest<IceCandidateDto> request) {
+        String targetId = request.getTargetId();
+        if (targetId == null) {
+            return;
+        }
+        // Old clients and a zero window keep the one-frame-per-candidate behaviour
+        if (windowMs <= 0 || !clientCapabilityService.supports(targetId, ClientCapabilityService.ICE_BATCH)) {
+            messagingTemplate.convertAndSend(QUEUE_SIGNAL + targetId, request);
+            return;
+        }
+
+        String key = request.getSenderId() + "->" + targetId;
+        boolean[] opened = new boolean[1];
+        pending.compute(key, (k, batch) -> {
+            if (batch == null) {
+                batch = new PendingBatch(request.getRoomId(), request.getSenderId(), targetId);
+                opened[0] = true;
+            }
+            batch.candidates.add(request.getSignal());
+            return batch;
+        });
+        if (opened[0]) {
+            scheduler.schedule(() -> flush(key), windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(String key) {
+        PendingBatch batch = pending.remove(key);
+        if (batch == null) {
+            return;
+        }
+        ChatMessageDto.SignalRequest<List<IceCandidateDto>> signal = new ChatMessageDto.SignalRequest<>();
+        signal.setType(ChatMessage.MessageType.ICE_CANDIDATE_BATCH);
+        signal.setRoomId(batch.roomId);
+        signal.setSenderId(batch.senderId);
+        signal.setTargetId(batch.targetId);
+        signal.setSignal(batch.candidates);
+        try {
+            messagingTemplate.convertAndSend(QUEUE_SIGNAL + batch.targetId, signal);
+        } catch (RuntimeException e) {
+            log.warn("Failed to deliver {} ICE candidates from {} to {}", batch.candidates.size(), batch.senderId, batch.targetId, e);
+        }
+    }
+}
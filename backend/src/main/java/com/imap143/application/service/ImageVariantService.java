@@ -0,0 +1,314 @@
+package com.imap143.application.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Background thumbnail/medium JPEG generation for uploaded images, one set per blob. Variant URLs are
+// deterministic, and until a variant exists the upload handler serves the original in its place.
+@Service
+public class ImageVariantService {
+
+    public static final String VARIANT_DIR = ".variants";
+    public static final String SKIPPED_SUFFIX = ".skipped";
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".gif", ".bmp");
+    private static final Pattern UPLOAD_URL = Pattern.compile("/uploads/([A-Za-z0-9_-]+)/([0-9a-f]{64})(\\.[A-Za-z0-9]{1,8})");
+
+    public enum Variant {
+        THUMB("thumb"), MEDIUM("medium");
+
+        private final String path;
+
+        Variant(String path) {
+            this.path = path;
+        }
+
+        public String path() {
+            return path;
+        }
+
+        public static Variant fromPath(String path) {
+            for (Variant variant : values()) {
+                if (variant.path.equals(path)) {
+                    return variant;
+                }
+            }
+            return null;
+        }
+    }
+
+    public record VariantUrls(String thumbnailUrl, String mediumUrl) {
+    }
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${chat.images.thumbnail-max-px:320}")
+    private int thumbnailMaxPx;
+
+    @Value("${chat.images.medium-max-px:1280}")
+    private int mediumMaxPx;
+
+    @Value("${chat.images.max-source-pixels:50000000}")
+    private long maxSourcePixels;
+
+    @Value("${chat.images.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    @Value("${chat.images.threads:2}")
+    private int threads;
+
+    @Value("${chat.images.queue-capacity:256}")
+    private int queueCapacity;
+
+    private Path root;
+    private ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet(); // blob hashes queued or being resized
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded queue: past the depth limit uploads keep their originals rather than piling up work
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public static boolean isResizable(String extension) {
+        return SOURCE_EXTENSIONS.contains(extension.toLowerCase(Locale.ROOT));
+    }
+
+    // Called by FileStorageService for every stored upload; blobs that already have variants, or that could
+    // not be decoded before, are skipped
+    public void submit(String hash, String extension, Path blob) {
+        if (!isResizable(extension) || Files.exists(variantPath(hash, Variant.THUMB))
+                || Files.exists(skippedPath(hash)) || !inFlight.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(hash, blob);
+                } finally {
+                    inFlight.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(hash);
+            rejected.increment();
+            log.warn("Image variant queue is full ({}), serving the original for {}", queueCapacity, hash);
+        }
+    }
+
+    // Variant URLs for an upload URL, or null when the upload is not a resizable image
+    public VariantUrls variantUrls(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        Matcher matcher = UPLOAD_URL.matcher(imageUrl);
+        if (!matcher.matches() || !isResizable(matcher.group(3))) {
+            return null;
+        }
+        String prefix = "/uploads/" + matcher.group(1) + "/";
+        String name = matcher.group(2) + matcher.group(3);
+        return new VariantUrls(prefix + Variant.THUMB.path() + "/" + name, prefix + Variant.MEDIUM.path() + "/" + name);
+    }
+
+    public Path variantPath(String hash, Variant variant) {
+        return root.resolve(VARIANT_DIR).resolve(hash.substring(0, 2)).resolve(hash + "." + variant.path() + ".jpg");
+    }
+
+    // Empty marker for a blob that yields no variants, so deduplicated re-uploads do not decode it again.
+    // StorageJanitor removes it together with the variants once the blob is gone.
+    public Path skippedPath(String hash) {
+        return root.resolve(VARIANT_DIR).resolve(hash.substring(0, 2)).resolve(hash + SKIPPED_SUFFIX);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long getGenerated() {
+        return generated.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private void generate(String hash, Path blob) {
+        BufferedImage source;
+        try {
+            source = read(blob, mediumMaxPx);
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Could not decode {} for image variants", blob, e);
+            source = null;
+        }
+        if (source == null) {
+            // Unreadable, not an image after all, or over the pixel limit: none of that changes on a re-upload
+            markSkipped(hash);
+            return;
+        }
+        // Write failures are not marked; the next upload of the blob tries again
+        try {
+            int longest = Math.max(source.getWidth(), source.getHeight());
+            // An image already smaller than the medium size is served as-is in its place
+            if (longest > mediumMaxPx) {
+                write(resize(source, mediumMaxPx), variantPath(hash, Variant.MEDIUM));
+            }
+            write(resize(source, Math.min(thumbnailMaxPx, longest)), variantPath(hash, Variant.THUMB));
+            generated.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Could not generate image variants for {}", blob, e);
+        }
+    }
+
+    private void markSkipped(String hash) {
+        Path marker = skippedPath(hash);
+        try {
+            Files.createDirectories(marker.getParent());
+            Files.createFile(marker);
+        } catch (FileAlreadyExistsException e) {
+            // Marked by an earlier attempt
+        } catch (IOException e) {
+            log.warn("Could not record that {} has no image variants", hash, e);
+        }
+    }
+
+    // Decodes with source subsampling so a large photo is never fully expanded in memory
+    private BufferedImage read(Path blob, int targetPx) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(blob.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    log.info("Skipping variants for {}: {}x{} exceeds the source pixel limit", blob, width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Keep at least twice the target resolution for the final smooth downscale
+                int subsampling = Math.max(1, Math.max(width, height) / (targetPx * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves repeatedly with bilinear filtering, then draws onto an opaque RGB canvas for JPEG
+    private static BufferedImage resize(BufferedImage source, int maxPx) {
+        double scale = Math.min(1.0, (double) maxPx / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(UUID.randomUUID() + ".part");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            // Readers only ever see a complete file
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // Only still there if encoding or the move failed
+            Files.deleteIfExists(temp);
+        }
+    }
+}
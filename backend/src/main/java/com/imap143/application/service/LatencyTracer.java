@@ -0,0 +1,207 @@
+package com.imap143.application.service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import com.imap143.application.dto.LatencySnapshot;
+
+// Samples inbound STOMP frames and follows them through the handler, persistence, the broker and the
+// outbound write. The same interceptor sits on the client inbound, broker and client outbound channels;
+// a header carries the timestamps between them and a thread-local links the handler to what it sends.
+// INBOUND, HANDLER, PERSISTENCE and BROKER are counted once per traced frame or publish; OUTBOUND and TOTAL
+// once per recipient, since the broker fans a publish out into one outbound message per subscribed session.
+@Component
+public class LatencyTracer implements ExecutorChannelInterceptor {
+
+    public static final String TRACE_HEADER = "chatTrace";
+    private static final String APP_PREFIX = "/app/";
+    private static final long MAX_TRACKED_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @Value("${chat.trace.sample-rate:0.01}")
+    private double sampleRate;
+
+    public enum Stage { INBOUND, HANDLER, PERSISTENCE, BROKER, OUTBOUND, TOTAL }
+
+    // brokerRecorded is shared by every per-recipient copy of one publish
+    public record Trace(String type, long receivedAt, long publishedAt, long outboundAt, AtomicBoolean brokerRecorded) {
+        private Trace withPublishedAt(long nanos) {
+            return new Trace(type, receivedAt, nanos, outboundAt, new AtomicBoolean());
+        }
+
+        private Trace withOutboundAt(long nanos) {
+            return new Trace(type, receivedAt, publishedAt, nanos, brokerRecorded);
+        }
+    }
+
+    private final ThreadLocal<Trace> current = new ThreadLocal<>();
+    private final Map<String, Map<Stage, Histogram>> histograms = new ConcurrentHashMap<>(); // type -> stage -> nanos
+
+    // Trace of the inbound frame the calling thread is handling, or null when it was not sampled
+    public Trace current() {
+        return current.get();
+    }
+
+    public void record(Trace trace, Stage stage, long nanos) {
+        if (trace == null || nanos < 0) {
+            return;
+        }
+        histograms.computeIfAbsent(trace.type(), type -> {
+            Map<Stage, Histogram> stages = new EnumMap<>(Stage.class);
+            for (Stage s : Stage.values()) {
+                stages.put(s, new ConcurrentHistogram(MAX_TRACKED_NANOS, 3));
+            }
+            return stages;
+        }).get(stage).recordValue(Math.min(nanos, MAX_TRACKED_NANOS));
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        Trace trace = message.getHeaders().get(TRACE_HEADER, Trace.class);
+        long now = System.nanoTime();
+
+        if (trace != null) {
+            // Leaving the broker for a client session; BROKER is the wait until the first copy leaves
+            if (trace.brokerRecorded().compareAndSet(false, true)) {
+                record(trace, Stage.BROKER, now - trace.publishedAt());
+            }
+            return withTrace(message, trace.withOutboundAt(now));
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination != null && destination.startsWith(APP_PREFIX)) {
+            // A client frame on its way to a @MessageMapping handler
+            String type = typeOf(destination);
+            if (type == null || sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                return message;
+            }
+            return withTrace(message, new Trace(type, now, 0, 0, new AtomicBoolean()));
+        }
+
+        Trace handling = current.get();
+        if (handling != null) {
+            // Published to the broker by a handler that is being traced
+            return withTrace(message, handling.withPublishedAt(now));
+        }
+        return message;
+    }
+
+    // Runs work that continues a trace on another thread, e.g. a broadcast after the persistence flush
+    public void runTraced(Trace trace, Runnable action) {
+        if (trace == null) {
+            action.run();
+            return;
+        }
+        Trace previous = current.get();
+        current.set(trace);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(@NonNull Message<?> message, @NonNull MessageChannel channel, @NonNull MessageHandler handler) {
+        Trace trace = message.getHeaders().get(TRACE_HEADER, Trace.class);
+        if (trace != null && trace.publishedAt() == 0 && handler instanceof SimpAnnotationMethodMessageHandler) {
+            record(trace, Stage.INBOUND, System.nanoTime() - trace.receivedAt());
+            current.set(trace.withPublishedAt(System.nanoTime()));
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(@NonNull Message<?> message, @NonNull MessageChannel channel, @NonNull MessageHandler handler, Exception ex) {
+        Trace trace = message.getHeaders().get(TRACE_HEADER, Trace.class);
+        if (trace == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (trace.outboundAt() != 0) {
+            record(trace, Stage.OUTBOUND, now - trace.outboundAt());
+            record(trace, Stage.TOTAL, now - trace.receivedAt());
+        } else if (handler instanceof SimpAnnotationMethodMessageHandler) {
+            Trace handling = current.get();
+            current.remove();
+            if (handling != null) {
+                record(trace, Stage.HANDLER, now - handling.publishedAt());
+            }
+        }
+    }
+
+    public Map<String, Map<Stage, LatencySnapshot>> getSnapshot() {
+        Map<String, Map<Stage, LatencySnapshot>> snapshot = new LinkedHashMap<>();
+        histograms.forEach((type, stages) -> {
+            Map<Stage, LatencySnapshot> byStage = new EnumMap<>(Stage.class);
+            stages.forEach((stage, histogram) -> {
+                Histogram copy = histogram.copy();
+                if (copy.getTotalCount() > 0) {
+                    byStage.put(stage, toSnapshot(copy));
+                }
+            });
+            snapshot.put(type, byStage);
+        });
+        return snapshot;
+    }
+
+    public void reset() {
+        histograms.values().forEach(stages -> stages.values().forEach(Histogram::reset));
+    }
+
+    private static LatencySnapshot toSnapshot(Histogram histogram) {
+        LatencySnapshot snapshot = new LatencySnapshot();
+        snapshot.setCount(histogram.getTotalCount());
+        snapshot.setP50Ms(toMillis(histogram.getValueAtPercentile(50)));
+        snapshot.setP99Ms(toMillis(histogram.getValueAtPercentile(99)));
+        snapshot.setP999Ms(toMillis(histogram.getValueAtPercentile(99.9)));
+        snapshot.setMaxMs(toMillis(histogram.getMaxValue()));
+        return snapshot;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Message<?> withTrace(Message<?> message, Trace trace) {
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        accessor.setHeader(TRACE_HEADER, trace);
+        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+    }
+
+    private static String typeOf(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        return switch (destination) {
+            case "/app/chat.send" -> "chat";
+            case "/app/signal.offer" -> "offer";
+            case "/app/signal.answer" -> "answer";
+            case "/app/signal.ice_candidate" -> "ice";
+            case "/app/signal.media_status" -> "media";
+            default -> null;
+        };
+    }
+}
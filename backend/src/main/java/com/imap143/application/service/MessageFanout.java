@@ -0,0 +1,73 @@
+package com.imap143.application.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+// Serializes a payload once and hands the same bytes to every destination
+@Component
+@RequiredArgsConstructor
+public class MessageFanout {
+
+    // Internal header read by the outbound backpressure policy; never written to the STOMP frame
+    public static final String PRIORITY_HEADER = "chatPriority";
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    public enum Priority {
+        NORMAL,
+        LOW     // Superseded by later frames (media status, participant deltas), dropped first for slow consumers
+    }
+
+    public void send(String destination, Object payload) {
+        send(List.of(destination), payload, Priority.NORMAL);
+    }
+
+    public void send(String destination, Object payload, Priority priority) {
+        send(List.of(destination), payload, priority);
+    }
+
+    public void send(Collection<String> destinations, Object payload) {
+        send(destinations, payload, Priority.NORMAL);
+    }
+
+    public void send(Collection<String> destinations, Object payload, Priority priority) {
+        if (destinations.isEmpty()) {
+            return;
+        }
+        byte[] encoded = encode(payload);
+        for (String destination : destinations) {
+            messagingTemplate.send(destination, toMessage(encoded, priority));
+        }
+    }
+
+    public byte[] encode(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize broadcast payload: " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    // The byte[] is shared; only the small header map is per destination, since the template stamps the destination on it
+    private Message<byte[]> toMessage(byte[] encoded, Priority priority) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(PRIORITY_HEADER, priority);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(encoded, accessor.getMessageHeaders());
+    }
+}
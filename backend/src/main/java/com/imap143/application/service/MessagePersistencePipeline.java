@@ -0,0 +1,276 @@
+package com.imap143.application.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.imap143.application.dto.PersistenceStats;
+import com.imap143.domain.entity.ChatMessage;
+import com.imap143.domain.repository.ChatMessageRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+// Buffers chat messages and writes them with insertMany, flushing by batch size or time
+@Service
+@RequiredArgsConstructor
+public class MessagePersistencePipeline {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private static final Logger log = LoggerFactory.getLogger(MessagePersistencePipeline.class);
+
+    @Value("${chat.persistence.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.persistence.batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.persistence.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${chat.persistence.enqueue-timeout-ms:200}")
+    private long enqueueTimeoutMs;
+
+    @Value("${chat.persistence.max-retries:3}")
+    private int maxRetries;
+
+    private BlockingQueue<PendingMessage> queue;
+    private Thread worker;
+    private ExecutorService ackExecutor;
+    private volatile boolean running;
+
+    // Held for the duration of each insert so room deletion can wait out an in-flight batch
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong tickets = new AtomicLong();
+    // roomId -> last ticket issued when the room was discarded; older messages of the room are dropped.
+    // Only touched under flushLock.
+    private final Map<String, Long> discardedRooms = new ConcurrentHashMap<>();
+
+    private final LongAdder batchesFlushed = new LongAdder();
+    private final LongAdder messagesPersisted = new LongAdder();
+    private final LongAdder messagesRejected = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+
+    public enum DurabilityMode {
+        ACK_AFTER_PERSIST,      // broadcast once the batch containing the message is in MongoDB
+        ACK_AFTER_BROADCAST     // broadcast immediately, persist in the background
+    }
+
+    private record PendingMessage(ChatMessage message, long ticket, CompletableFuture<Void> persisted) {
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Futures complete here, in queue order, so a slow ACK_AFTER_PERSIST broadcast never delays the next insert
+        ackExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-persistence-ack");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        worker = new Thread(this::runFlushLoop, "chat-persistence");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        List<PendingMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+        ackExecutor.shutdown();
+        ackExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Blocks for up to enqueue-timeout-ms when the buffer is full, then rejects
+    public CompletableFuture<Void> enqueue(ChatMessage message) {
+        PendingMessage pending = new PendingMessage(message, tickets.incrementAndGet(), new CompletableFuture<>());
+        try {
+            if (!queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                messagesRejected.increment();
+                throw new IllegalStateException("Message persistence queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing message", e);
+        }
+        return pending.persisted();
+    }
+
+    // Drops every message of a room that is being deleted, whether still queued or already drained into the
+    // worker's next batch, and waits out an insert in progress. Dropped futures are cancelled, never completed.
+    // The caller must keep the room's enqueues out while this runs (ChatMessageService holds the room's
+    // sequence lock), otherwise a message holding an older ticket could reach the queue afterwards.
+    public void discardRoom(String roomId) {
+        flushLock.lock();
+        try {
+            discardedRooms.merge(roomId, tickets.get(), Math::max);
+            queue.removeIf(pending -> {
+                if (roomId.equals(pending.message().getRoomId())) {
+                    pending.persisted().cancel(false);
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public PersistenceStats getStats() {
+        PersistenceStats stats = new PersistenceStats();
+        stats.setQueueDepth(queue.size());
+        stats.setQueueCapacity(queueCapacity);
+        stats.setBatchesFlushed(batchesFlushed.sum());
+        stats.setMessagesPersisted(messagesPersisted.sum());
+        stats.setMessagesRejected(messagesRejected.sum());
+        stats.setFlushFailures(flushFailures.sum());
+        stats.setLastFlushLatencyMs(lastFlushNanos.get() / 1_000_000.0);
+        stats.setMaxFlushLatencyMs(maxFlushNanos.get() / 1_000_000.0);
+        long batches = batchesFlushed.sum();
+        stats.setAvgFlushLatencyMs(batches == 0 ? 0 : totalFlushNanos.sum() / 1_000_000.0 / batches);
+        return stats;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runFlushLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill up to batch-size, but never hold the first message longer than flush-interval-ms
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                queue.drainTo(batch, batchSize - batch.size());
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        flushLock.lock();
+        try {
+            List<PendingMessage> live = dropDiscarded(batch);
+            if (!live.isEmpty()) {
+                insert(live);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Cancels messages of rooms discarded after they left the queue. Every ticket of the room up to the discard
+    // was already queued when it happened (see discardRoom), and anything enqueued later sits behind it, so once
+    // a batch starts past a discard's ticket nothing older of that room can still arrive and the entry is dropped.
+    private List<PendingMessage> dropDiscarded(List<PendingMessage> batch) {
+        if (discardedRooms.isEmpty()) {
+            return batch;
+        }
+        List<PendingMessage> live = new ArrayList<>(batch.size());
+        long oldestTicket = Long.MAX_VALUE;
+        for (PendingMessage pending : batch) {
+            oldestTicket = Math.min(oldestTicket, pending.ticket());
+            Long discardedUpTo = discardedRooms.get(pending.message().getRoomId());
+            if (discardedUpTo != null && pending.ticket() <= discardedUpTo) {
+                pending.persisted().cancel(false);
+            } else {
+                live.add(pending);
+            }
+        }
+        long oldest = oldestTicket;
+        discardedRooms.values().removeIf(discardedUpTo -> discardedUpTo < oldest);
+        return live;
+    }
+
+    private void insert(List<PendingMessage> batch) {
+        List<ChatMessage> messages = batch.stream().map(PendingMessage::message).toList();
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                if (attempt == 1) {
+                    chatMessageRepository.insert(messages);
+                } else {
+                    // Ids are server-assigned, so an upsert retry cannot duplicate a partially inserted batch
+                    chatMessageRepository.saveAll(messages);
+                }
+                recordFlush(System.nanoTime() - start, messages.size());
+                ackExecutor.execute(() -> batch.forEach(pending -> pending.persisted().complete(null)));
+                return;
+            } catch (RuntimeException e) {
+                flushFailures.increment();
+                if (attempt > maxRetries) {
+                    log.error("Dropping {} chat messages after {} failed inserts", messages.size(), attempt, e);
+                    ackExecutor.execute(() -> batch.forEach(pending -> pending.persisted().completeExceptionally(e)));
+                    return;
+                }
+                log.warn("Chat message insert failed (attempt {}), retrying", attempt, e);
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private void recordFlush(long nanos, int count) {
+        batchesFlushed.increment();
+        messagesPersisted.add(count);
+        totalFlushNanos.add(nanos);
+        lastFlushNanos.set(nanos);
+        maxFlushNanos.accumulate(nanos);
+    }
+
+    private void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(flushIntervalMs * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.imap143.application.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.imap143.domain.repository.ChatMessageRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+// Per-room monotonic message sequence, kept in memory and seeded from MongoDB on startup
+@Component
+@RequiredArgsConstructor
+public class MessageSequencer {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private static final Logger log = LoggerFactory.getLogger(MessageSequencer.class);
+
+    private final Map<String, RoomSequence> sequences = new ConcurrentHashMap<>(); // roomId -> last issued
+
+    private static final class RoomSequence {
+        private long value; // guarded by this
+
+        private RoomSequence(long value) {
+            this.value = value;
+        }
+    }
+
+    @PostConstruct
+    public void seed() {
+        chatMessageRepository.findMaxSequenceByRoom()
+            .forEach((roomId, maxSequence) -> sequences.put(roomId, new RoomSequence(maxSequence)));
+        log.info("Message sequences seeded for {} rooms", sequences.size());
+    }
+
+    // Runs the action with the next sequence while holding the room's sequence lock, so anything the
+    // action publishes leaves in sequence order. The number is only consumed if the action succeeds.
+    public <T> T runSequenced(String roomId, LongFunction<T> action) {
+        RoomSequence sequence = sequences.computeIfAbsent(roomId, id -> new RoomSequence(0));
+        synchronized (sequence) {
+            long next = sequence.value + 1;
+            T result = action.apply(next);
+            sequence.value = next;
+            return result;
+        }
+    }
+
+    // Runs the action under the room's sequence lock without issuing a number, so no runSequenced action
+    // for the room is in progress meanwhile
+    public void runExclusive(String roomId, Runnable action) {
+        RoomSequence sequence = sequences.computeIfAbsent(roomId, id -> new RoomSequence(0));
+        synchronized (sequence) {
+            action.run();
+        }
+    }
+
+    public long currentSequence(String roomId) {
+        RoomSequence sequence = sequences.get(roomId);
+        if (sequence == null) {
+            return 0;
+        }
+        synchronized (sequence) {
+            return sequence.value;
+        }
+    }
+
+    public void reset(String roomId) {
+        sequences.remove(roomId);
+    }
+}
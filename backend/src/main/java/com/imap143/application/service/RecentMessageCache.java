@@ -0,0 +1,301 @@
+package com.imap143.application.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.imap143.api.dto.response.ChatMessageResponse;
+import com.imap143.application.dto.CacheStats;
+
+// Ring buffer of the most recent messages per room, filled on write and seeded from MongoDB on first read
+@Component
+public class RecentMessageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RecentMessageCache.class);
+    private static final long EVICTED = Long.MIN_VALUE;
+    private static final long GAP = Long.MIN_VALUE + 1;
+
+    @Value("${chat.cache.messages-per-room:200}")
+    private int capacity;
+
+    @Value("${chat.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${chat.cache.idle-eviction-ms:600000}")
+    private long idleEvictionMs;
+
+    private final Map<String, RoomBuffer> buffers = new ConcurrentHashMap<>(); // roomId -> buffer
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public record CachedPage(List<ChatMessageResponse> messages, boolean hasMore) {
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Called under the room's sequence lock, so buffers stay in sequence order
+    public void append(ChatMessageResponse message) {
+        long delta;
+        do {
+            RoomBuffer buffer = buffers.computeIfAbsent(message.getRoomId(), id -> new RoomBuffer(capacity));
+            delta = buffer.append(message);
+        } while (delta == EVICTED);
+        totalBytes.addAndGet(delta);
+        enforceMemoryCap();
+    }
+
+    // storedNewestFirst is the latest slice read from MongoDB; complete means it is the whole room history.
+    // latestSequence is the room sequence read before the query, used to detect messages still in flight.
+    public void seed(String roomId, List<ChatMessageResponse> stored, boolean complete, long latestSequence) {
+        RoomBuffer buffer = buffers.computeIfAbsent(roomId, id -> new RoomBuffer(capacity));
+        long delta = buffer.seed(stored, complete, latestSequence);
+        if (delta == EVICTED) {
+            return;
+        }
+        if (delta == GAP) {
+            log.debug("Cache seed for room {} skipped, history has a gap", roomId);
+            return;
+        }
+        totalBytes.addAndGet(delta);
+        enforceMemoryCap();
+    }
+
+    public CachedPage latest(String roomId, int limit) {
+        RoomBuffer buffer = buffers.get(roomId);
+        return count(buffer == null ? null : buffer.latest(limit));
+    }
+
+    public CachedPage afterSequence(String roomId, long afterSequence, int limit) {
+        RoomBuffer buffer = buffers.get(roomId);
+        return count(buffer == null ? null : buffer.afterSequence(afterSequence, limit));
+    }
+
+    public CachedPage since(String roomId, long timestamp) {
+        RoomBuffer buffer = buffers.get(roomId);
+        return count(buffer == null ? null : buffer.since(timestamp));
+    }
+
+    public void evict(String roomId) {
+        RoomBuffer buffer = buffers.remove(roomId);
+        if (buffer != null) {
+            totalBytes.addAndGet(-buffer.evict());
+            evictions.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.cache.eviction-interval-ms:60000}")
+    public void evictIdleRooms() {
+        long cutoff = System.currentTimeMillis() - idleEvictionMs;
+        buffers.forEach((roomId, buffer) -> {
+            if (buffer.lastAccess < cutoff) {
+                evict(roomId);
+            }
+        });
+    }
+
+    public CacheStats getStats() {
+        CacheStats stats = new CacheStats();
+        stats.setRooms(buffers.size());
+        stats.setMessages(buffers.values().stream().mapToLong(RoomBuffer::size).sum());
+        stats.setEstimatedBytes(totalBytes.get());
+        stats.setMaxBytes(maxBytes);
+        stats.setHits(hits.sum());
+        stats.setMisses(misses.sum());
+        stats.setEvictions(evictions.sum());
+        return stats;
+    }
+
+    private CachedPage count(CachedPage page) {
+        if (page == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return page;
+    }
+
+    // Evicts least recently used rooms until the cache is back under 90% of max-bytes
+    private void enforceMemoryCap() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        List<Map.Entry<String, RoomBuffer>> byAge = new ArrayList<>(buffers.entrySet());
+        byAge.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        long target = maxBytes * 9 / 10;
+        for (Map.Entry<String, RoomBuffer> entry : byAge) {
+            if (totalBytes.get() <= target) {
+                break;
+            }
+            evict(entry.getKey());
+        }
+    }
+
+    private static long estimateBytes(ChatMessageResponse message) {
+        long chars = length(message.getId()) + length(message.getRoomId()) + length(message.getSenderId())
+            + length(message.getSenderName()) + length(message.getContent()) + length(message.getImageUrl())
+            + length(message.getThumbnailUrl()) + length(message.getMediumUrl());
+        return 96 + 2 * chars;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static final class RoomBuffer {
+        private final ChatMessageResponse[] entries;
+        private int start;
+        private int size;
+        private long bytes;
+        private boolean seeded;     // holds every message newer than its oldest entry
+        private boolean complete;   // oldest entry is the first message of the room
+        private boolean evicted;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private RoomBuffer(int capacity) {
+            this.entries = new ChatMessageResponse[capacity];
+        }
+
+        private synchronized long append(ChatMessageResponse message) {
+            if (evicted) {
+                return EVICTED;
+            }
+            lastAccess = System.currentTimeMillis();
+            long before = bytes;
+            if (size == entries.length) {
+                bytes -= estimateBytes(entries[start]);
+                entries[start] = message;
+                start = (start + 1) % entries.length;
+                complete = false;
+            } else {
+                entries[(start + size) % entries.length] = message;
+                size++;
+            }
+            bytes += estimateBytes(message);
+            return bytes - before;
+        }
+
+        private synchronized long seed(List<ChatMessageResponse> stored, boolean storedComplete, long latestSequence) {
+            if (evicted) {
+                return EVICTED;
+            }
+            if (seeded) {
+                return 0;
+            }
+            List<ChatMessageResponse> merged = new ArrayList<>(stored);
+            Set<String> ids = new HashSet<>();
+            stored.forEach(message -> ids.add(message.getId()));
+            for (int i = 0; i < size; i++) {
+                if (ids.add(get(i).getId())) {
+                    merged.add(get(i));
+                }
+            }
+            merged.sort(Comparator.comparingLong(ChatMessageResponse::getSequence)
+                .thenComparingLong(ChatMessageResponse::getTimestamp));
+
+            // Anything still queued for persistence but not appended here shows up as a gap
+            for (int i = 1; i < merged.size(); i++) {
+                long previous = merged.get(i - 1).getSequence();
+                if (previous > 0 && merged.get(i).getSequence() != previous + 1) {
+                    return GAP;
+                }
+            }
+            long newest = merged.isEmpty() ? 0 : merged.get(merged.size() - 1).getSequence();
+            if (newest < latestSequence) {
+                return GAP;
+            }
+
+            long before = bytes;
+            int from = Math.max(0, merged.size() - entries.length);
+            start = 0;
+            size = 0;
+            bytes = 0;
+            for (int i = from; i < merged.size(); i++) {
+                entries[size++] = merged.get(i);
+                bytes += estimateBytes(merged.get(i));
+            }
+            for (int i = size; i < entries.length; i++) {
+                entries[i] = null;
+            }
+            seeded = true;
+            complete = storedComplete && from == 0;
+            lastAccess = System.currentTimeMillis();
+            return bytes - before;
+        }
+
+        private synchronized CachedPage latest(int limit) {
+            if (!seeded) {
+                return null;
+            }
+            lastAccess = System.currentTimeMillis();
+            int count = Math.min(limit, size);
+            List<ChatMessageResponse> page = new ArrayList<>(count);
+            for (int i = size - count; i < size; i++) {
+                page.add(get(i));
+            }
+            return new CachedPage(page, size > count || !complete);
+        }
+
+        private synchronized CachedPage afterSequence(long afterSequence, int limit) {
+            if (!seeded || (!complete && size > 0 && get(0).getSequence() > afterSequence + 1)) {
+                return null;
+            }
+            lastAccess = System.currentTimeMillis();
+            List<ChatMessageResponse> page = new ArrayList<>();
+            boolean hasMore = false;
+            for (int i = 0; i < size; i++) {
+                ChatMessageResponse message = get(i);
+                if (message.getSequence() > afterSequence) {
+                    if (page.size() == limit) {
+                        hasMore = true;
+                        break;
+                    }
+                    page.add(message);
+                }
+            }
+            return new CachedPage(page, hasMore);
+        }
+
+        private synchronized CachedPage since(long timestamp) {
+            if (!seeded || (!complete && size > 0 && get(0).getTimestamp() > timestamp)) {
+                return null;
+            }
+            lastAccess = System.currentTimeMillis();
+            List<ChatMessageResponse> page = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (get(i).getTimestamp() > timestamp) {
+                    page.add(get(i));
+                }
+            }
+            return new CachedPage(page, false);
+        }
+
+        private synchronized long size() {
+            return size;
+        }
+
+        private synchronized long evict() {
+            evicted = true;
+            return bytes;
+        }
+
+        private ChatMessageResponse get(int index) {
+            return entries[(start + index) % entries.length];
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.imap143.application.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.imap143.application.dto.ReclaimReport;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+// Reclaims upload storage in the background: directories of rooms that no longer exist, blobs no live room
+// references, variants of vanished blobs and stale temp files. Every directory entry visited or deleted costs
+// one I/O op against a per-second budget, and the janitor stands aside while uploads are being written.
+@Service
+@RequiredArgsConstructor
+public class StorageJanitor {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageJanitor.class);
+    private static final Pattern VARIANT_NAME = Pattern.compile("([0-9a-f]{64})\\.(?:[a-z]+\\.jpg|skipped)");
+    private static final long YIELD_STEP_MS = 50;
+
+    public enum Kind { REFERENCE, BLOB, VARIANT, TEMP }
+
+    private final FileStorageService fileStorageService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final UploadServingService uploadServingService;
+    private final ChatRoomService chatRoomService;
+
+    @Value("${file.janitor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.janitor.interval-ms:600000}")
+    private long intervalMs;
+
+    // Anything modified more recently than this is left alone, which covers uploads racing a scan
+    @Value("${file.janitor.grace-ms:3600000}")
+    private long graceMs;
+
+    @Value("${file.janitor.temp-ttl-ms:86400000}")
+    private long tempTtlMs;
+
+    @Value("${file.janitor.io-ops-per-second:200}")
+    private int ioOpsPerSecond;
+
+    @Value("${file.janitor.max-yield-ms:2000}")
+    private long maxYieldMs;
+
+    private ScheduledExecutorService scheduler;
+    private final ReentrantLock running = new ReentrantLock();
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final Map<Kind, LongAdder> reclaimedFiles = counters();
+    private final Map<Kind, LongAdder> reclaimedBytes = counters();
+    private volatile ReclaimReport lastReport;
+
+    @PostConstruct
+    public void start() {
+        // Own thread: a throttled run can take minutes and must not hold up the shared @Scheduled thread
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-janitor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::reclaimScheduled, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            log.info("Storage janitor is disabled; uploads under {} will not be reclaimed", fileStorageService.getRoot());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void reclaimScheduled() {
+        reclaimLogged(false);
+    }
+
+    // Queues a run on the janitor thread, behind a scheduled run if one is in progress; the result becomes the
+    // last report. Only one requested run may be waiting at a time.
+    public void requestReclaim(boolean dryRun) {
+        if (!dryRun && !enabled) {
+            throw new IllegalStateException("Storage reclamation is disabled (file.janitor.enabled=false)");
+        }
+        if (!requested.compareAndSet(false, true)) {
+            throw new IllegalStateException("Storage reclamation is already requested");
+        }
+        try {
+            scheduler.execute(() -> {
+                try {
+                    reclaimLogged(dryRun);
+                } finally {
+                    requested.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            requested.set(false);
+            throw e;
+        }
+    }
+
+    private void reclaimLogged(boolean dryRun) {
+        try {
+            ReclaimReport report = reclaim(dryRun);
+            if (report.getBytesReclaimed() > 0 || report.getReferences() > 0) {
+                log.info("Storage {}: {} room directories, {} references, {} blobs, {} variants, {} temp files, {} bytes in {} ms",
+                    dryRun ? "reclaimable (dry run)" : "reclaimed", report.getRoomDirectories(), report.getReferences(),
+                    report.getBlobs(), report.getVariants(), report.getTempFiles(), report.getBytesReclaimed(), report.getDurationMs());
+            }
+        } catch (IllegalStateException e) {
+            log.debug("Skipping storage reclamation: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Storage reclamation failed", e);
+        }
+    }
+
+    // A dry run walks the same paths under the same budget and reports what would go, without deleting
+    public ReclaimReport reclaim(boolean dryRun) {
+        if (!dryRun && !enabled) {
+            throw new IllegalStateException("Storage reclamation is disabled (file.janitor.enabled=false)");
+        }
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Storage reclamation is already running");
+        }
+        try {
+            Run run = new Run(dryRun);
+            try {
+                run.reclaim();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                run.report.setInterrupted(true);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not scan upload storage", e);
+            }
+            run.report.setDurationMs(System.currentTimeMillis() - run.report.getStartedAt());
+            lastReport = run.report;
+            return run.report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public ReclaimReport getLastReport() {
+        return lastReport;
+    }
+
+    public long getReclaimedFiles(Kind kind) {
+        return reclaimedFiles.get(kind).sum();
+    }
+
+    public long getReclaimedBytes(Kind kind) {
+        return reclaimedBytes.get(kind).sum();
+    }
+
+    private final class Run {
+        private final ReclaimReport report = new ReclaimReport();
+        private final long graceCutoff;
+        private final long tempCutoff;
+        private long windowStart = System.nanoTime();
+        private int windowOps;
+
+        private Run(boolean dryRun) {
+            long now = System.currentTimeMillis();
+            report.setDryRun(dryRun);
+            report.setStartedAt(now);
+            graceCutoff = now - graceMs;
+            tempCutoff = now - tempTtlMs;
+        }
+
+        private void reclaim() throws IOException, InterruptedException {
+            Path root = fileStorageService.getRoot();
+            Set<String> referenced = reclaimRooms(root);
+            Set<String> liveHashes = reclaimBlobs(root.resolve(FileStorageService.BLOB_DIR), referenced);
+            reclaimVariants(root.resolve(ImageVariantService.VARIANT_DIR), liveHashes);
+            reclaimTemp(root.resolve(FileStorageService.TEMP_DIR));
+        }
+
+        // Deletes references in directories of rooms that are gone and returns the names live rooms still use
+        private Set<String> reclaimRooms(Path root) throws IOException, InterruptedException {
+            Set<String> referenced = new HashSet<>();
+            try (DirectoryStream<Path> roomDirs = Files.newDirectoryStream(root)) {
+                for (Path roomDir : roomDirs) {
+                    pace();
+                    String roomId = roomDir.getFileName().toString();
+                    if (roomId.startsWith(".") || !Files.isDirectory(roomDir, LinkOption.NOFOLLOW_LINKS)) {
+                        continue;
+                    }
+                    boolean gone = isOld(roomDir, graceCutoff) && chatRoomService.findRoom(roomId) == null;
+                    try (DirectoryStream<Path> references = Files.newDirectoryStream(roomDir)) {
+                        for (Path reference : references) {
+                            pace();
+                            if (gone) {
+                                delete(Kind.REFERENCE, reference, referenceBytes(reference));
+                            } else {
+                                referenced.add(reference.getFileName().toString());
+                            }
+                        }
+                    }
+                    if (gone) {
+                        report.setRoomDirectories(report.getRoomDirectories() + 1);
+                        deleteDirectory(roomDir);
+                    }
+                }
+            }
+            return referenced;
+        }
+
+        // Blobs are named like their references, so a blob no live room lists is garbage
+        private Set<String> reclaimBlobs(Path blobDir, Set<String> referenced) throws IOException, InterruptedException {
+            Set<String> liveHashes = new HashSet<>();
+            for (Path shard : list(blobDir)) {
+                for (Path blob : list(shard)) {
+                    String name = blob.getFileName().toString();
+                    if (!referenced.contains(name) && isOld(blob, graceCutoff)) {
+                        delete(Kind.BLOB, blob, size(blob));
+                    } else if (name.length() >= 64) {
+                        liveHashes.add(name.substring(0, 64));
+                    }
+                }
+            }
+            return liveHashes;
+        }
+
+        private void reclaimVariants(Path variantDir, Set<String> liveHashes) throws IOException, InterruptedException {
+            for (Path shard : list(variantDir)) {
+                for (Path variant : list(shard)) {
+                    Matcher matcher = VARIANT_NAME.matcher(variant.getFileName().toString());
+                    // Non-matching names are leftovers of interrupted variant writes
+                    boolean orphaned = matcher.matches() ? !liveHashes.contains(matcher.group(1)) && isOld(variant, graceCutoff)
+                        : isOld(variant, tempCutoff);
+                    if (orphaned) {
+                        delete(Kind.VARIANT, variant, size(variant));
+                    }
+                }
+            }
+        }
+
+        private void reclaimTemp(Path tempDir) throws IOException, InterruptedException {
+            for (Path temp : list(tempDir)) {
+                if (!chunkedUploadService.isActive(temp) && isOld(temp, tempCutoff)) {
+                    delete(Kind.TEMP, temp, size(temp));
+                }
+            }
+        }
+
+        // Lists a directory, charging one op per entry; a missing directory is empty
+        private List<Path> list(Path dir) throws IOException, InterruptedException {
+            List<Path> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    pace();
+                    entries.add(entry);
+                }
+            } catch (NoSuchFileException e) {
+                // Nothing stored there yet
+            }
+            return entries;
+        }
+
+        private void delete(Kind kind, Path path, long bytes) throws InterruptedException {
+            pace();
+            if (!report.isDryRun()) {
+                try {
+                    if (!Files.deleteIfExists(path)) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not reclaim {}", path, e);
+                    return;
+                }
+                uploadServingService.evict(path);
+                reclaimedFiles.get(kind).increment();
+                reclaimedBytes.get(kind).add(bytes);
+            }
+            switch (kind) {
+                case REFERENCE -> report.setReferences(report.getReferences() + 1);
+                case BLOB -> report.setBlobs(report.getBlobs() + 1);
+                case VARIANT -> report.setVariants(report.getVariants() + 1);
+                case TEMP -> report.setTempFiles(report.getTempFiles() + 1);
+            }
+            report.setBytesReclaimed(report.getBytesReclaimed() + bytes);
+        }
+
+        private void deleteDirectory(Path dir) throws InterruptedException {
+            pace();
+            if (report.isDryRun()) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(dir);
+            } catch (DirectoryNotEmptyException e) {
+                log.info("Upload directory {} gained files during reclamation, keeping it", dir);
+            } catch (IOException e) {
+                log.warn("Could not delete upload directory {}", dir, e);
+            }
+        }
+
+        // Yields while uploads are being written, then keeps to ioOpsPerSecond
+        private void pace() throws InterruptedException {
+            report.setIoOps(report.getIoOps() + 1);
+            for (long yielded = 0; yielded < maxYieldMs && uploadsInProgress(); yielded += YIELD_STEP_MS) {
+                Thread.sleep(YIELD_STEP_MS);
+            }
+            if (++windowOps < ioOpsPerSecond) {
+                return;
+            }
+            long remainingNanos = TimeUnit.SECONDS.toNanos(1) - (System.nanoTime() - windowStart);
+            if (remainingNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(remainingNanos);
+            }
+            windowStart = System.nanoTime();
+            windowOps = 0;
+        }
+    }
+
+    private static Map<Kind, LongAdder> counters() {
+        Map<Kind, LongAdder> counters = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            counters.put(kind, new LongAdder());
+        }
+        return counters;
+    }
+
+    private boolean uploadsInProgress() {
+        return fileStorageService.getActiveUploads() > 0 || chunkedUploadService.getActiveWrites() > 0;
+    }
+
+    private static boolean isOld(Path path, long cutoff) {
+        try {
+            return Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS).toMillis() < cutoff;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // A hard-linked or symlinked reference frees nothing by itself; a pre-dedup upload stored as a plain file does
+    private static long referenceBytes(Path reference) {
+        try {
+            if (Files.isSymbolicLink(reference)) {
+                return 0;
+            }
+            Object links = Files.getAttribute(reference, "unix:nlink", LinkOption.NOFOLLOW_LINKS);
+            return links instanceof Integer count && count > 1 ? 0 : Files.size(reference);
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return 0;
+        }
+    }
+}
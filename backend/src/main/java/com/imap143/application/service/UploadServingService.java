@@ -0,0 +1,161 @@
+package com.imap143.application.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import com.imap143.application.dto.ServingStats;
+
+import lombok.RequiredArgsConstructor;
+
+// Resolves /uploads paths to files on disk and keeps small hot files (mostly thumbnails) in a byte-bounded LRU.
+// Upload names are content hashes or UUIDs and never rewritten, so the name itself is a strong ETag.
+@Service
+@RequiredArgsConstructor
+public class UploadServingService {
+
+    private static final Pattern ROOM_ID = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]{1,128}\\.[A-Za-z0-9]{1,8}");
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final FileStorageService fileStorageService;
+    private final ImageVariantService imageVariantService;
+
+    @Value("${file.serve.cache-max-bytes:33554432}")
+    private long cacheMaxBytes;
+
+    @Value("${file.serve.cache-max-file-bytes:65536}")
+    private long cacheMaxFileBytes;
+
+    private final LinkedHashMap<Path, byte[]> cache = new LinkedHashMap<>(256, 0.75f, true); // guarded by itself
+    private long cachedBytes;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder partial = new LongAdder();
+    private final LongAdder sendfile = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
+
+    // immutable is false while a variant request is answered with the original, so clients pick up the variant later
+    public record ServedFile(Path path, long length, String etag, boolean immutable, MediaType contentType) {
+    }
+
+    // Null when the path is malformed or the room has no such upload
+    public ServedFile resolve(String roomId, String variantPath, String name) throws IOException {
+        requests.increment();
+        if (!ROOM_ID.matcher(roomId).matches() || !NAME.matcher(name).matches()) {
+            return null;
+        }
+        Path reference = fileStorageService.getRoot().resolve(roomId).resolve(name);
+        if (!Files.isRegularFile(reference)) {
+            return null;
+        }
+        String stem = name.substring(0, name.lastIndexOf('.'));
+        MediaType contentType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        if (variantPath == null) {
+            return new ServedFile(reference, Files.size(reference), quote(stem), true, contentType);
+        }
+
+        ImageVariantService.Variant variant = ImageVariantService.Variant.fromPath(variantPath);
+        if (variant == null) {
+            return null;
+        }
+        if (!HASH.matcher(stem).matches() || !ImageVariantService.isResizable(name.substring(stem.length()))) {
+            // Never gets variants, so the original stands in for good
+            return new ServedFile(reference, Files.size(reference), quote(stem), true, contentType);
+        }
+        Path variantFile = imageVariantService.variantPath(stem, variant);
+        if (Files.isRegularFile(variantFile)) {
+            return new ServedFile(variantFile, Files.size(variantFile), quote(stem + "." + variant.path()),
+                true, MediaType.IMAGE_JPEG);
+        }
+        // The thumbnail is written last, so once it exists a missing medium was skipped as unnecessary
+        boolean settled = Files.isRegularFile(imageVariantService.variantPath(stem, ImageVariantService.Variant.THUMB));
+        return new ServedFile(reference, Files.size(reference), quote(stem), settled, contentType);
+    }
+
+    // Whole file contents for small files, or null when the file should be streamed from disk
+    public byte[] cachedContent(ServedFile file) throws IOException {
+        if (file.length() > cacheMaxFileBytes) {
+            return null;
+        }
+        synchronized (cache) {
+            byte[] content = cache.get(file.path());
+            if (content != null) {
+                cacheHits.increment();
+                return content;
+            }
+        }
+        cacheMisses.increment();
+        byte[] content = Files.readAllBytes(file.path());
+        synchronized (cache) {
+            byte[] previous = cache.put(file.path(), content);
+            cachedBytes += content.length - (previous == null ? 0 : previous.length);
+            Iterator<Map.Entry<Path, byte[]>> eldest = cache.entrySet().iterator();
+            while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().length;
+                eldest.remove();
+                cacheEvictions.increment();
+            }
+        }
+        return content;
+    }
+
+    // Drops a file that is about to be deleted from disk
+    public void evict(Path path) {
+        synchronized (cache) {
+            byte[] previous = cache.remove(path);
+            if (previous != null) {
+                cachedBytes -= previous.length;
+            }
+        }
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    public void recordServed(long bytes, boolean partialContent, boolean viaSendfile) {
+        bytesServed.add(bytes);
+        if (partialContent) {
+            partial.increment();
+        }
+        if (viaSendfile) {
+            sendfile.increment();
+        }
+    }
+
+    public ServingStats getStats() {
+        ServingStats stats = new ServingStats();
+        stats.setRequests(requests.sum());
+        stats.setNotModified(notModified.sum());
+        stats.setPartial(partial.sum());
+        stats.setSendfile(sendfile.sum());
+        stats.setBytesServed(bytesServed.sum());
+        synchronized (cache) {
+            stats.setCachedFiles(cache.size());
+            stats.setCachedBytes(cachedBytes);
+        }
+        stats.setCacheMaxBytes(cacheMaxBytes);
+        stats.setCacheHits(cacheHits.sum());
+        stats.setCacheMisses(cacheMisses.sum());
+        stats.setCacheEvictions(cacheEvictions.sum());
+        return stats;
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+}
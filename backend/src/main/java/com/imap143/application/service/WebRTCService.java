@@ -1,9 +1,10 @@
 package com.imap143.application.service;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,10 +13,15 @@ import org.springframework.stereotype.Service;
 
 import com.imap143.api.dto.response.ChatRoomResponse;
 import com.imap143.application.dto.ChatMessageDto;
+import com.imap143.application.dto.IceCandidateDto;
 import com.imap143.application.dto.MediaStatusDto;
-import com.imap143.application.dto.ParticipantUpdateMessage;
+import com.imap143.application.dto.ParticipantEvent;
+import com.imap143.application.dto.PeerRosterDto;
+import com.imap143.application.dto.SessionDescriptionDto;
 import com.imap143.domain.entity.ChatMessage;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -26,11 +32,16 @@ public class WebRTCService {
     private final ChatRoomService chatRoomService;
     private final ChatMessageService chatMessageService;
     private final WebSocketSessionService webSocketSessionService;
+    private final IceCandidateBatcher iceCandidateBatcher;
+    private final MessageFanout messageFanout;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> fanoutSizes = new ConcurrentHashMap<>(); // kind -> recipients per broadcast
     
     private static final Logger log = LoggerFactory.getLogger(WebRTCService.class);
     private static final String QUEUE_SIGNAL = "/queue/signal.";
+    private static final String QUEUE_PARTICIPANTS = "/queue/participants.";
     
-    public void handleOffer(ChatMessageDto.SignalRequest request) {
+    public void handleOffer(ChatMessageDto.SignalRequest<SessionDescriptionDto> request) {
         log.info("Handling offer from {} to {}", request.getSenderId(), request.getTargetId());
         messagingTemplate.convertAndSend(
             QUEUE_SIGNAL + request.getTargetId(),
@@ -38,7 +49,7 @@ public class WebRTCService {
         );
     }
     
-    public void handleAnswer(ChatMessageDto.SignalRequest request) {
+    public void handleAnswer(ChatMessageDto.SignalRequest<SessionDescriptionDto> request) {
         log.info("Handling answer from {} to {}", request.getSenderId(), request.getTargetId());
         messagingTemplate.convertAndSend(
             QUEUE_SIGNAL + request.getTargetId(),
@@ -46,25 +57,30 @@ public class WebRTCService {
         );
     }
     
-    public void handleIceCandidate(ChatMessageDto.SignalRequest request) {
-        // Ice Candidate signal handling
-        String targetId = request.getTargetId();
-        if (targetId != null) {
-            messagingTemplate.convertAndSend(QUEUE_SIGNAL + targetId, request);
+    public void handleIceCandidate(ChatMessageDto.SignalRequest<IceCandidateDto> request) {
+        // Candidates are coalesced per peer pair for clients that announced ice-batch
+        iceCandidateBatcher.submit(request);
+    }
+    
+    // Full roster for one user, sent when they subscribe to the room topic or fall out of sync
+    public void sendParticipantSnapshot(String roomId, String userId) {
+        ChatRoomResponse room = chatRoomService.findRoom(roomId);
+        if (room == null || userId == null) {
+            return;
         }
+        messageFanout.send(
+            QUEUE_PARTICIPANTS + userId,
+            ParticipantEvent.snapshot(roomId, room.getParticipantVersion(), room.getActiveParticipants())
+        );
     }
     
-    public void broadcastParticipantList(String roomId) {
-        ChatRoomResponse room = chatRoomService.getRoom(roomId);
-        List<String> participants = new ArrayList<>(room.getActiveParticipants());
-        
-        // Send updated participant list to all participants
-        participants.forEach(participantId -> {
-            messagingTemplate.convertAndSend(
-                "/queue/participants." + participantId,
-                new ParticipantUpdateMessage(roomId, participants)
-            );
-        });
+    public void syncParticipants(String roomId, String userId, long clientVersion) {
+        ChatRoomResponse room = chatRoomService.findRoom(roomId);
+        if (room != null && room.getParticipantVersion() != clientVersion) {
+            log.info("Participant version mismatch for {} in room {}: client {}, server {}",
+                userId, roomId, clientVersion, room.getParticipantVersion());
+            sendParticipantSnapshot(roomId, userId);
+        }
     }
     
     public void addParticipant(String roomId, String userId) {
@@ -73,96 +89,101 @@ public class WebRTCService {
         
         log.info("New participant added: {} to room: {}", userId, roomId);
         
-        // Broadcast participant list
-        broadcastParticipantList(roomId);
+        // Existing peers learn about the joiner from the single JOINED delta ChatRoomService put on the room topic
+        recordFanout("participant_event", room.getActiveParticipants().size());
         
-        // Send signal to new participant from existing participants
-        room.getActiveParticipants().stream()
+        // The joiner gets one roster frame and offers to every peer on it
+        List<String> peers = room.getActiveParticipants().stream()
             .filter(participantId -> !participantId.equals(userId))
-            .forEach(participantId -> {
-                ChatMessageDto.SignalRequest newPeerSignal = new ChatMessageDto.SignalRequest();
-                newPeerSignal.setType(ChatMessage.MessageType.JOIN);
-                newPeerSignal.setRoomId(roomId);
-                newPeerSignal.setSenderId(userId);
-                newPeerSignal.setTargetId(participantId);
-                
-                // Add necessary information for JOIN signal
-                Map<String, Object> signalData = new HashMap<>();
-                signalData.put("type", "join");
-                signalData.put("userId", userId);
-                signalData.put("timestamp", System.currentTimeMillis());
-                newPeerSignal.setSignal(signalData);
-                
-                log.info("Sending JOIN signal from: {} to: {}", userId, participantId);
-                messagingTemplate.convertAndSend(QUEUE_SIGNAL + participantId, newPeerSignal);
-                
-                // Existing participants also send JOIN signal to new participant
-                ChatMessageDto.SignalRequest reverseSignal = new ChatMessageDto.SignalRequest();
-                reverseSignal.setType(ChatMessage.MessageType.JOIN);
-                reverseSignal.setRoomId(roomId);
-                reverseSignal.setSenderId(participantId);
-                reverseSignal.setTargetId(userId);
-                reverseSignal.setSignal(signalData);
-                
-                log.info("Sending reverse JOIN signal from: {} to: {}", participantId, userId);
-                messagingTemplate.convertAndSend(QUEUE_SIGNAL + userId, reverseSignal);
-            });
+            .toList();
+        ChatMessageDto.SignalRequest<PeerRosterDto> rosterSignal = new ChatMessageDto.SignalRequest<>();
+        rosterSignal.setType(ChatMessage.MessageType.ROSTER);
+        rosterSignal.setRoomId(roomId);
+        rosterSignal.setTargetId(userId);
+        rosterSignal.setSignal(new PeerRosterDto(peers, room.getParticipantVersion()));
+        
+        log.info("Sending ROSTER of {} peers to: {}", peers.size(), userId);
+        messageFanout.send(QUEUE_SIGNAL + userId, rosterSignal);
     }
     
     public void removeParticipant(String roomId, String userId) {
-        if (webSocketSessionService.hasActiveSession(userId)) {
-            log.info("User {} still has an active WebSocket session, so not removed from room {}", userId, roomId);
+        removeParticipants(roomId, List.of(userId));
+    }
+    
+    // Removes a batch of departed users with one participant broadcast for the room
+    public void removeParticipants(String roomId, Collection<String> userIds) {
+        List<String> leavers = userIds.stream()
+            .filter(userId -> {
+                if (webSocketSessionService.isUserInRoom(roomId, userId)) {
+                    log.info("User {} still has an active WebSocket session in room {}, so not removed", userId, roomId);
+                    return false;
+                }
+                return true;
+            })
+            .toList();
+        if (leavers.isEmpty()) {
             return;
         }
         
-        ChatRoomResponse room = chatRoomService.getRoom(roomId);
-        if (room != null) {
-            List<String> activeParticipants = room.getActiveParticipants();
-            if (activeParticipants.size() <= 1) {
-                chatMessageService.deleteMessage(roomId);
-                chatRoomService.removeFromActiveParticipants(roomId, userId);
-                log.info("Empty chat room and messages deleted: {}", roomId);
-            } else {
-                chatRoomService.removeFromActiveParticipants(roomId, userId);
-                broadcastParticipantList(roomId);
-                
-                ChatMessageDto.SignalRequest peerLeaveSignal = new ChatMessageDto.SignalRequest();
-                peerLeaveSignal.setRoomId(roomId);
-                peerLeaveSignal.setSenderId(userId);
-                peerLeaveSignal.setType(ChatMessage.MessageType.LEAVE);
-                
-                activeParticipants.forEach(participantId -> {
-                    if (!participantId.equals(userId)) {
-                        messagingTemplate.convertAndSend(QUEUE_SIGNAL + participantId, peerLeaveSignal);
-                    }
-                });
-            }
+        ChatRoomResponse room = chatRoomService.removeFromActiveParticipants(roomId, leavers);
+        List<String> remaining = room.getActiveParticipants();
+        if (remaining.isEmpty()) {
+            chatMessageService.deleteMessage(roomId);
+            log.info("Empty chat room and messages deleted: {}", roomId);
+            return;
         }
+        
+        // The LEFT delta went out from ChatRoomService with the version bump
+        recordFanout("participant_event", remaining.size());
+        
+        List<String> destinations = signalQueues(remaining);
+        leavers.forEach(userId -> {
+            ChatMessageDto.SignalRequest<Void> peerLeaveSignal = new ChatMessageDto.SignalRequest<>();
+            peerLeaveSignal.setRoomId(roomId);
+            peerLeaveSignal.setSenderId(userId);
+            peerLeaveSignal.setType(ChatMessage.MessageType.LEAVE);
+            
+            messageFanout.send(destinations, peerLeaveSignal);
+            recordFanout("leave", destinations.size());
+        });
     }
 
     public void handleMediaStatusChange(String roomId, String userId, MediaStatusDto mediaStatus) {
     ChatRoomResponse room = chatRoomService.getRoom(roomId);
     if (room != null) {
-        ChatMessageDto.SignalRequest mediaStatusSignal = new ChatMessageDto.SignalRequest();
+        ChatMessageDto.SignalRequest<MediaStatusDto> mediaStatusSignal = new ChatMessageDto.SignalRequest<>();
         mediaStatusSignal.setType(ChatMessage.MessageType.MEDIA_STATUS);
         mediaStatusSignal.setRoomId(roomId);
         mediaStatusSignal.setSenderId(userId);
         mediaStatusSignal.setSignal(mediaStatus);
         
         // notice media status change to other participants
-        room.getActiveParticipants().stream()
+        List<String> peers = room.getActiveParticipants().stream()
             .filter(participantId -> !participantId.equals(userId))
-            .forEach(participantId -> 
-                messagingTemplate.convertAndSend(QUEUE_SIGNAL + participantId, mediaStatusSignal)
-            );
+            .toList();
+        messageFanout.send(signalQueues(peers), mediaStatusSignal, MessageFanout.Priority.LOW);
+        recordFanout("media_status", peers.size());
         }
     }
     
     // Method called when WebSocket connection is disconnected
     public void handleSessionDisconnect(String userId) {
-        chatRoomService.getRooms().stream()
-            .filter(room -> room.getActiveParticipants().contains(userId))
-            .forEach(room -> removeParticipant(room.getId(), userId));
+        chatRoomService.getActiveRoomIds(userId)
+            .forEach(roomId -> removeParticipant(roomId, userId));
+    }
+    
+    private void recordFanout(String kind, int recipients) {
+        fanoutSizes.computeIfAbsent(kind, k -> DistributionSummary.builder("chat.fanout.recipients")
+                .description("Recipients per broadcast")
+                .tag("kind", k)
+                .register(meterRegistry))
+            .record(recipients);
+    }
+    
+    private static List<String> signalQueues(List<String> userIds) {
+        return userIds.stream()
+            .map(participantId -> QUEUE_SIGNAL + participantId)
+            .toList();
     }
     
     public List<String> getRoomParticipants(String roomId) {
@@ -13,80 +13,147 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @Slf4j
 public class WebSocketSessionService {
-    private final Map<String, Map<String, String>> roomSessions = new ConcurrentHashMap<>(); // roomId -> (sessionId -> userId)
-    private final Map<String, String> sessionUserMap = new ConcurrentHashMap<>(); // sessionId -> userId
+    // Lock order is always sessions -> userSessions -> roomSessions, each taken through a
+    // ConcurrentHashMap compute on a single key, so callers only contend on the same key.
+    private final Map<String, SessionEntry> sessions = new ConcurrentHashMap<>(); // sessionId -> (userId, roomIds)
     private final Map<String, Set<String>> userSessions = new ConcurrentHashMap<>(); // userId -> Set<sessionId>
-    private final Map<String, Set<String>> roomParticipants = new ConcurrentHashMap<>(); // roomId -> Set<userId>
-    
+    private final Map<String, Map<String, Set<String>>> roomSessions = new ConcurrentHashMap<>(); // roomId -> (userId -> Set<sessionId>)
+
+    private static final class SessionEntry {
+        private final String userId;
+        private final Set<String> roomIds = new HashSet<>(); // only touched inside sessions.compute
+
+        private SessionEntry(String userId) {
+            this.userId = userId;
+        }
+    }
+
     public void addSession(String roomId, String sessionId, String userId) {
         if (sessionId == null || userId == null) {
             log.warn("Session addition failed: sessionId or userId is null.");
             return;
         }
-        
-        synchronized (sessionUserMap) {
-            sessionUserMap.put(sessionId, userId);
-            log.info("Session mapping added: {} -> {}", sessionId, userId);
-            
-            // Add session to user's session list
-            userSessions.computeIfAbsent(userId, k -> new HashSet<>()).add(sessionId);
-            log.info("User {} session list: {}", userId, userSessions.get(userId));
-            
-            // Add user to room participants list
-            roomParticipants.computeIfAbsent(roomId, k -> new HashSet<>()).add(userId);
-            log.info("Room {} participants list: {}", roomId, roomParticipants.get(roomId));
-        }
+
+        sessions.compute(sessionId, (id, entry) -> {
+            if (entry == null) {
+                entry = new SessionEntry(userId);
+                linkUser(userId, sessionId);
+            } else if (!entry.userId.equals(userId)) {
+                log.warn("Session {} belongs to user {}, ignoring room join for user {}", sessionId, entry.userId, userId);
+                return entry;
+            }
+            if (entry.roomIds.add(roomId)) {
+                linkRoom(roomId, userId, sessionId);
+            }
+            return entry;
+        });
+        log.info("Session mapping added: {} -> {} in room {}", sessionId, userId, roomId);
     }
-    
+
     public void removeSession(String sessionId) {
-        String userId = sessionUserMap.remove(sessionId);
-        if (userId != null) {
-            roomSessions.forEach((roomId, sessions) -> {
-                if (sessions.remove(sessionId) != null) {
-                    log.info("Session removed: sessionId={}, userId={}", sessionId, userId);
-                    if (sessions.isEmpty()) {
-                        roomSessions.remove(roomId);
-                        log.info("Empty room removed: roomId={}", roomId);
-                    }
-                }
-            });
-        }
+        sessions.computeIfPresent(sessionId, (id, entry) -> {
+            entry.roomIds.forEach(roomId -> unlinkRoom(roomId, entry.userId, sessionId));
+            unlinkUser(entry.userId, sessionId);
+            log.info("Session removed: sessionId={}, userId={}, rooms={}", sessionId, entry.userId, entry.roomIds);
+            return null;
+        });
+    }
+
+    public void leaveRoom(String roomId, String sessionId) {
+        sessions.computeIfPresent(sessionId, (id, entry) -> {
+            if (entry.roomIds.remove(roomId)) {
+                unlinkRoom(roomId, entry.userId, sessionId);
+            }
+            return entry;
+        });
     }
-    
+
     public String getUserIdBySessionId(String sessionId) {
-        String userId = sessionUserMap.get(sessionId);
-        if (userId == null) {
+        SessionEntry entry = sessions.get(sessionId);
+        if (entry == null) {
             log.warn("User not found for sessionId: {}", sessionId);
+            return null;
         }
-        return userId;
+        return entry.userId;
     }
-    
+
     public Set<String> getRoomParticipants(String roomId) {
-        return new HashSet<>(roomSessions.getOrDefault(roomId, Collections.emptyMap()).values());
+        return new HashSet<>(roomSessions.getOrDefault(roomId, Collections.emptyMap()).keySet());
     }
-    
+
     public boolean hasActiveSession(String userId) {
-        return sessionUserMap.containsValue(userId);
+        return userSessions.containsKey(userId);
     }
-    
+
     public boolean isUserInRoom(String roomId, String userId) {
-        Map<String, String> sessions = roomSessions.get(roomId);
-        return sessions != null && sessions.containsValue(userId);
+        Map<String, Set<String>> users = roomSessions.get(roomId);
+        return users != null && users.containsKey(userId);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
     }
-    
+
+    public int getUserCount() {
+        return userSessions.size();
+    }
+
+    public int getRoomCount() {
+        return roomSessions.size();
+    }
+
+    // Distinct (room, user) memberships across all rooms
+    public int getParticipantCount() {
+        return roomSessions.values().stream().mapToInt(Map::size).sum();
+    }
+
     public void initializeSession(String sessionId, String userId) {
         if (sessionId == null || userId == null) {
             log.warn("Session initialization failed: sessionId or userId is null.");
             return;
         }
-        
-        synchronized (sessionUserMap) {
-            sessionUserMap.put(sessionId, userId);
-            log.info("Initial session mapping added: {} -> {}", sessionId, userId);
-            
-            // Add session to user's session list
-            userSessions.computeIfAbsent(userId, k -> new HashSet<>()).add(sessionId);
-            log.info("Initial session list for user {}: {}", userId, userSessions.get(userId));
-        }
+
+        sessions.computeIfAbsent(sessionId, id -> {
+            linkUser(userId, sessionId);
+            return new SessionEntry(userId);
+        });
+        log.info("Initial session mapping added: {} -> {}", sessionId, userId);
+    }
+
+    private void linkUser(String userId, String sessionId) {
+        userSessions.compute(userId, (id, sessionIds) -> {
+            if (sessionIds == null) {
+                sessionIds = ConcurrentHashMap.newKeySet();
+            }
+            sessionIds.add(sessionId);
+            return sessionIds;
+        });
+    }
+
+    private void unlinkUser(String userId, String sessionId) {
+        userSessions.computeIfPresent(userId, (id, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+
+    private void linkRoom(String roomId, String userId, String sessionId) {
+        roomSessions.compute(roomId, (id, users) -> {
+            if (users == null) {
+                users = new ConcurrentHashMap<>();
+            }
+            users.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+            return users;
+        });
+    }
+
+    private void unlinkRoom(String roomId, String userId, String sessionId) {
+        roomSessions.computeIfPresent(roomId, (id, users) -> {
+            users.computeIfPresent(userId, (k, sessionIds) -> {
+                sessionIds.remove(sessionId);
+                return sessionIds.isEmpty() ? null : sessionIds;
+            });
+            return users.isEmpty() ? null : users;
+        });
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.imap143.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.imap143.domain.repository.ChatMessageRepository;
+import com.imap143.domain.repository.ChatRoomRepository;
+import com.imap143.domain.repository.inmemory.InMemoryChatMessageRepository;
+import com.imap143.domain.repository.inmemory.InMemoryChatRoomRepository;
+
+// MongoDB stand-in for benchmarks, load tests and CI; MongoConfig and Boot's Mongo auto-configuration stay off
+@Configuration
+@Profile("inmemory")
+public class InMemoryRepositoryConfig {
+
+    @Bean
+    public ChatMessageRepository chatMessageRepository() {
+        return new InMemoryChatMessageRepository();
+    }
+
+    @Bean
+    public ChatRoomRepository chatRoomRepository() {
+        return new InMemoryChatRoomRepository();
+    }
+}
@@ -0,0 +1,122 @@
+package com.imap143.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.imap143.application.service.FileStorageService;
+import com.imap143.application.service.ImageVariantService;
+import com.imap143.application.service.MessagePersistencePipeline;
+import com.imap143.application.service.RecentMessageCache;
+import com.imap143.application.service.StorageJanitor;
+import com.imap143.application.service.UploadServingService;
+import com.imap143.application.service.WebSocketSessionService;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Configuration
+public class MetricsConfig {
+
+    // Makes @Timed work on beans such as ChatMessageController
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder webSocketSessionMetrics(WebSocketSessionService webSocketSessionService) {
+        return registry -> {
+            Gauge.builder("chat.websocket.sessions", webSocketSessionService, WebSocketSessionService::getSessionCount)
+                .description("Open STOMP sessions")
+                .register(registry);
+            Gauge.builder("chat.websocket.users", webSocketSessionService, WebSocketSessionService::getUserCount)
+                .description("Users with at least one open session")
+                .register(registry);
+            Gauge.builder("chat.rooms.active", webSocketSessionService, WebSocketSessionService::getRoomCount)
+                .description("Rooms with at least one connected participant")
+                .register(registry);
+            Gauge.builder("chat.rooms.participants", webSocketSessionService, WebSocketSessionService::getParticipantCount)
+                .description("Connected participants summed over rooms")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder chatPipelineMetrics(MessagePersistencePipeline persistencePipeline, RecentMessageCache recentMessageCache) {
+        return registry -> {
+            Gauge.builder("chat.persistence.queue.depth", persistencePipeline, MessagePersistencePipeline::getQueueDepth)
+                .register(registry);
+            FunctionCounter.builder("chat.cache.requests", recentMessageCache, cache -> cache.getStats().getHits())
+                .tag("result", "hit")
+                .register(registry);
+            FunctionCounter.builder("chat.cache.requests", recentMessageCache, cache -> cache.getStats().getMisses())
+                .tag("result", "miss")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder uploadStorageMetrics(FileStorageService fileStorageService, UploadServingService uploadServingService) {
+        return registry -> {
+            FunctionCounter.builder("chat.uploads.bytes", fileStorageService, storage -> storage.getStats().getBytesReceived())
+                .tag("kind", "received")
+                .baseUnit("bytes")
+                .register(registry);
+            FunctionCounter.builder("chat.uploads.bytes", fileStorageService, storage -> storage.getStats().getBytesWritten())
+                .tag("kind", "written")
+                .baseUnit("bytes")
+                .register(registry);
+            FunctionCounter.builder("chat.uploads.deduplicated", fileStorageService, storage -> storage.getStats().getDeduplicated())
+                .description("Uploads resolved to an existing blob")
+                .register(registry);
+            FunctionCounter.builder("chat.uploads.served.bytes", uploadServingService, serving -> serving.getStats().getBytesServed())
+                .baseUnit("bytes")
+                .register(registry);
+            FunctionCounter.builder("chat.uploads.served.not_modified", uploadServingService, serving -> serving.getStats().getNotModified())
+                .register(registry);
+            FunctionCounter.builder("chat.uploads.cache.requests", uploadServingService, serving -> serving.getStats().getCacheHits())
+                .tag("result", "hit")
+                .register(registry);
+            FunctionCounter.builder("chat.uploads.cache.requests", uploadServingService, serving -> serving.getStats().getCacheMisses())
+                .tag("result", "miss")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder imageVariantMetrics(ImageVariantService imageVariantService) {
+        return registry -> {
+            Gauge.builder("chat.images.queue.depth", imageVariantService, ImageVariantService::getQueueDepth)
+                .register(registry);
+            FunctionCounter.builder("chat.images.variants", imageVariantService, ImageVariantService::getGenerated)
+                .tag("result", "generated")
+                .register(registry);
+            FunctionCounter.builder("chat.images.variants", imageVariantService, ImageVariantService::getFailed)
+                .tag("result", "failed")
+                .register(registry);
+            FunctionCounter.builder("chat.images.variants", imageVariantService, ImageVariantService::getRejected)
+                .tag("result", "rejected")
+                .description("Images left without variants because the queue was full")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder storageJanitorMetrics(StorageJanitor storageJanitor) {
+        return registry -> {
+            for (StorageJanitor.Kind kind : StorageJanitor.Kind.values()) {
+                String tag = kind.name().toLowerCase();
+                FunctionCounter.builder("chat.storage.reclaimed.bytes", storageJanitor, janitor -> janitor.getReclaimedBytes(kind))
+                    .tag("kind", tag)
+                    .baseUnit("bytes")
+                    .register(registry);
+                FunctionCounter.builder("chat.storage.reclaimed.files", storageJanitor, janitor -> janitor.getReclaimedFiles(kind))
+                    .tag("kind", tag)
+                    .register(registry);
+            }
+        };
+    }
+}
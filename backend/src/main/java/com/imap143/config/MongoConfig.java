@@ -1,13 +1,25 @@
 package com.imap143.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import com.mongodb.MongoClientSettings;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import lombok.RequiredArgsConstructor;
+
 @Configuration
+@Profile("!inmemory")
 @EnableMongoRepositories(basePackages = "com.imap143.domain.repository")
+@RequiredArgsConstructor
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    private final MeterRegistry meterRegistry;
+
     @Override
     protected String getDatabaseName() {
         return "minizoom";
@@ -17,4 +29,12 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     protected boolean autoIndexCreation() {
         return true;
     }
+
+    // This client is built here rather than by Boot, so driver metrics have to be attached by hand
+    @Override
+    protected void configureClientSettings(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+            .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(
+                new MongoMetricsConnectionPoolListener(meterRegistry)));
+    }
 } 
\ No newline at end of file
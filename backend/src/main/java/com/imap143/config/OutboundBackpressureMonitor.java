@@ -0,0 +1,157 @@
+package com.imap143.config;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import com.imap143.application.dto.BackpressureStats;
+import com.imap143.application.service.MessageFanout;
+
+// Counts MESSAGE frames per session from the outbound channel until they reach the socket,
+// and sheds low-priority frames once a session falls behind the soft limit.
+// Spring's send-buffer and send-time limits remain the last resort and close the session.
+@Component
+public class OutboundBackpressureMonitor implements ChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundBackpressureMonitor.class);
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE".getBytes(StandardCharsets.US_ASCII);
+    private static final int REPORTED_SESSIONS = 20;
+
+    @Value("${chat.websocket.backpressure.soft-limit-frames:64}")
+    private int softLimit;
+
+    private final Map<String, AtomicInteger> pendingFrames = new ConcurrentHashMap<>(); // sessionId -> frames in flight
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder slowSessionsClosed = new LongAdder();
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String sessionId = accessor.getSessionId();
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE || sessionId == null) {
+            return message;
+        }
+        AtomicInteger pending = pendingFrames.get(sessionId);
+        if (pending == null) {
+            return message;
+        }
+        if (pending.get() >= softLimit && accessor.getHeader(MessageFanout.PRIORITY_HEADER) == MessageFanout.Priority.LOW) {
+            droppedFrames.increment();
+            log.debug("Dropping low-priority frame to {} for session {}, {} frames pending",
+                    accessor.getDestination(), sessionId, pending.get());
+            return null;
+        }
+        pending.incrementAndGet();
+        return message;
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                pendingFrames.put(session.getId(), new AtomicInteger());
+                super.afterConnectionEstablished(new MeteredSession(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus closeStatus) throws Exception {
+                AtomicInteger pending = pendingFrames.remove(session.getId());
+                if (CloseStatus.SESSION_NOT_RELIABLE.equals(closeStatus)) {
+                    slowSessionsClosed.increment();
+                    log.warn("Closed slow session {} with {} frames pending", session.getId(), pending == null ? 0 : pending.get());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    public BackpressureStats getStats() {
+        BackpressureStats stats = new BackpressureStats();
+        Map<String, Integer> deepest = new LinkedHashMap<>();
+        long total = 0;
+        int max = 0;
+        for (AtomicInteger pending : pendingFrames.values()) {
+            total += pending.get();
+            max = Math.max(max, pending.get());
+        }
+        pendingFrames.entrySet().stream()
+                .filter(entry -> entry.getValue().get() > 0)
+                .sorted((a, b) -> Integer.compare(b.getValue().get(), a.getValue().get()))
+                .limit(REPORTED_SESSIONS)
+                .forEach(entry -> deepest.put(entry.getKey(), entry.getValue().get()));
+        stats.setSessions(pendingFrames.size());
+        stats.setTotalPendingFrames(total);
+        stats.setMaxPendingFrames(max);
+        stats.setSoftLimit(softLimit);
+        stats.setDroppedFrames(droppedFrames.sum());
+        stats.setSlowSessionsClosed(slowSessionsClosed.sum());
+        stats.setDeepestSessions(deepest);
+        return stats;
+    }
+
+    public int getPendingFrames(String sessionId) {
+        AtomicInteger pending = pendingFrames.get(sessionId);
+        return pending == null ? 0 : pending.get();
+    }
+
+    // Sits under Spring's buffering decorator, so a send here means the frame reached the socket
+    private final class MeteredSession extends WebSocketSessionDecorator {
+        private MeteredSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(@NonNull WebSocketMessage<?> message) throws IOException {
+            super.sendMessage(message);
+            if (isMessageFrame(message)) {
+                AtomicInteger pending = pendingFrames.get(getId());
+                if (pending != null && pending.get() > 0) {
+                    pending.decrementAndGet();
+                }
+            }
+        }
+
+        private boolean isMessageFrame(WebSocketMessage<?> message) {
+            if (message instanceof TextMessage text) {
+                return text.getPayload().startsWith("MESSAGE");
+            }
+            if (message instanceof BinaryMessage binary) {
+                ByteBuffer payload = binary.getPayload();
+                if (payload.remaining() < MESSAGE_COMMAND.length) {
+                    return false;
+                }
+                for (int i = 0; i < MESSAGE_COMMAND.length; i++) {
+                    if (payload.get(payload.position() + i) != MESSAGE_COMMAND[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.imap143.config;
+
+import java.io.IOException;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imap143.application.service.ClientCapabilityService;
+
+import lombok.RequiredArgsConstructor;
+
+// Re-encodes outbound JSON frames as CBOR for sessions that negotiated it on CONNECT
+@RequiredArgsConstructor
+public class SessionCodecInterceptor implements ChannelInterceptor {
+    public static final String CODEC_HEADER = "codec";
+
+    private final ClientCapabilityService clientCapabilityService;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    // A broadcast shares one payload array across subscribers and the broker sends its copies back to back from
+    // one thread, so remembering each thread's last transcoding reuses it for the whole fan-out without a shared
+    // lock, and keeps at most one frame per thread alive.
+    private final ThreadLocal<Transcoded> lastTranscoded = new ThreadLocal<>();
+
+    private record Transcoded(byte[] json, byte[] cbor) {
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE
+                || !clientCapabilityService.prefersCbor(accessor.getSessionId())
+                || !(message.getPayload() instanceof byte[] json)
+                || accessor.getContentType() == null
+                || !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(accessor.getContentType())) {
+            return message;
+        }
+
+        Transcoded last = lastTranscoded.get();
+        byte[] cbor;
+        if (last != null && last.json() == json) {
+            cbor = last.cbor();
+        } else {
+            cbor = toCbor(json);
+            lastTranscoded.set(new Transcoded(json, cbor));
+        }
+        // Spring only sends binary WebSocket frames for application/octet-stream; the codec header names the encoding
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(CODEC_HEADER, ClientCapabilityService.CBOR.getSubtype());
+        return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+    }
+
+    private byte[] toCbor(byte[] json) {
+        try {
+            return cborMapper.writeValueAsBytes(jsonMapper.readTree(json));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to transcode frame to CBOR", e);
+        }
+    }
+}
@@ -1,21 +1,110 @@
 package com.imap143.config;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.lang.NonNull;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.imap143.application.service.ClientCapabilityService;
+import com.imap143.application.service.LatencyTracer;
+
+import lombok.RequiredArgsConstructor;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ClientCapabilityService clientCapabilityService;
+    private final ObjectMapper objectMapper;
+    private final OutboundBackpressureMonitor outboundBackpressureMonitor;
+    private final LatencyTracer latencyTracer;
+    private static final Logger log = LoggerFactory.getLogger(WebSocketConfig.class);
+
+    private final ObjectMapper cborMapper = CBORMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    public enum ExecutorMode { PLATFORM, VIRTUAL }
+
+    @Value("${chat.stomp.executor-mode:PLATFORM}")
+    private ExecutorMode executorMode;
+
+    @Value("${chat.stomp.inbound.core-pool-size:16}")
+    private int inboundCorePoolSize;
+
+    @Value("${chat.stomp.inbound.max-pool-size:64}")
+    private int inboundMaxPoolSize;
+
+    @Value("${chat.stomp.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${chat.stomp.outbound.core-pool-size:16}")
+    private int outboundCorePoolSize;
+
+    @Value("${chat.stomp.outbound.max-pool-size:64}")
+    private int outboundMaxPoolSize;
+
+    @Value("${chat.stomp.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${chat.stomp.virtual.concurrency-limit:-1}")
+    private int virtualConcurrencyLimit;
+
+    @Value("${chat.stomp.broker.cache-limit:1024}")
+    private int brokerCacheLimit;
+
+    @Value("${chat.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${chat.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${chat.websocket.message-size-limit:131072}")
+    private int messageSizeLimit;
+
+    @Value("${spring.websocket.max-text-message-size:131072}")
+    private int maxTextMessageSize;
+
+    @Value("${spring.websocket.max-binary-message-size:131072}")
+    private int maxBinaryMessageSize;
+
+    // Container-level frame buffers; Tomcat's 8 KB default truncates large SDP offers
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxTextMessageSize);
+        container.setMaxBinaryMessageBufferSize(maxBinaryMessageSize);
+        return container;
+    }
+
     @Override
     public void configureMessageBroker(@NonNull MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        config.setCacheLimit(brokerCacheLimit);
+        // Messages to one session leave in the order they were published
+        config.setPreservePublishOrder(true);
+        config.configureBrokerChannel().interceptors(latencyTracer);
     }
 
     @Override
@@ -23,5 +112,78 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOrigins("http://localhost:3000")
                 .withSockJS();
+        // Plain WebSocket endpoint for binary codecs; SockJS transports can only carry text frames
+        registry.addEndpoint("/ws-native")
+                .setAllowedOrigins("http://localhost:3000");
+        // Frames from one session are handled one at a time, so a user's messages are never reordered
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    // A session whose buffer passes the size limit, or whose send blocks past the time limit, is closed
+    @Override
+    public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(outboundBackpressureMonitor::decorate);
+    }
+
+    // application/cbor frames use the CBOR converter; anything else falls through to the default JSON converter
+    @Override
+    public boolean configureMessageConverters(@NonNull List<MessageConverter> messageConverters) {
+        MappingJackson2MessageConverter cborConverter = new MappingJackson2MessageConverter(ClientCapabilityService.CBOR);
+        cborConverter.setObjectMapper(cborMapper);
+        cborConverter.setStrictContentTypeMatch(true);
+        messageConverters.add(cborConverter);
+        return true;
+    }
+
+    @Override
+    public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+        registration.interceptors(latencyTracer);
+        if (useVirtualThreads()) {
+            registration.executor(virtualExecutor("clientInbound-vt-"));
+        } else {
+            registration.taskExecutor()
+                    .corePoolSize(inboundCorePoolSize)
+                    .maxPoolSize(inboundMaxPoolSize)
+                    .queueCapacity(inboundQueueCapacity);
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(@NonNull ChannelRegistration registration) {
+        registration.interceptors(
+                outboundBackpressureMonitor,
+                new SessionCodecInterceptor(clientCapabilityService, objectMapper, cborMapper),
+                latencyTracer);
+        if (useVirtualThreads()) {
+            registration.executor(virtualExecutor("clientOutbound-vt-"));
+        } else {
+            registration.taskExecutor()
+                    .corePoolSize(outboundCorePoolSize)
+                    .maxPoolSize(outboundMaxPoolSize)
+                    .queueCapacity(outboundQueueCapacity);
+        }
+    }
+
+    private boolean useVirtualThreads() {
+        if (executorMode != ExecutorMode.VIRTUAL) {
+            return false;
+        }
+        if (Runtime.version().feature() < 21) {
+            log.warn("chat.stomp.executor-mode=VIRTUAL needs Java 21+, running on {}; using platform thread pools",
+                    Runtime.version());
+            return false;
+        }
+        return true;
+    }
+
+    // One virtual thread per task, so a blocking MongoDB call in a handler no longer pins a pool thread
+    private Executor virtualExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(virtualConcurrencyLimit);
+        return executor;
     }
-} 
\ No newline at end of file
+}
@@ -1,15 +1,14 @@
 package com.imap143.config;
 
-import java.util.List;
-
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
-import com.imap143.application.dto.ChatRoomDto;
-import com.imap143.application.service.ChatRoomService;
+import com.imap143.application.service.ClientCapabilityService;
+import com.imap143.application.service.DisconnectCleanupService;
 import com.imap143.application.service.WebRTCService;
 import com.imap143.application.service.WebSocketSessionService;
 
@@ -20,24 +19,26 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketEventListener {
-    private final WebRTCService webRTCService;
-    private final ChatRoomService chatRoomService;
+    private final DisconnectCleanupService disconnectCleanupService;
     private final WebSocketSessionService webSocketSessionService;
+    private final ClientCapabilityService clientCapabilityService;
+    private final WebRTCService webRTCService;
+    private static final String PARTICIPANT_TOPIC_PREFIX = "/topic/room.";
+    private static final String PARTICIPANT_TOPIC_SUFFIX = ".participants";
 
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         String sessionId = headerAccessor.getSessionId();
         String userId = webSocketSessionService.getUserIdBySessionId(sessionId);
+        clientCapabilityService.removeSession(userId, sessionId);
         
         log.info("WebSocket connection closed - Session ID: {}, User ID: {}", sessionId, userId);
         
         if (userId != null) {
             webSocketSessionService.removeSession(sessionId);
-            List<ChatRoomDto> userRooms = chatRoomService.getRoomsByUserId(userId);
-            for (ChatRoomDto room : userRooms) {
-                webRTCService.removeParticipant(room.getId(), userId);
-            }
+            // Room cleanup runs in a coalesced background pass driven by the membership index
+            disconnectCleanupService.enqueue(userId);
         } else {
             log.warn("Failed to find userId - Session ID: {}", sessionId);
         }
@@ -53,9 +54,29 @@ public class WebSocketEventListener {
         
         if (userId != null) {
             webSocketSessionService.initializeSession(sessionId, userId);
+            clientCapabilityService.register(userId, sessionId,
+                headerAccessor.getFirstNativeHeader(ClientCapabilityService.HEADER));
+            clientCapabilityService.registerCodec(sessionId,
+                headerAccessor.getFirstNativeHeader(ClientCapabilityService.CONTENT_TYPE_HEADER));
             log.info("WebSocket connection successful - Session ID: {}, User ID: {}", sessionId, userId);
         } else {
             log.warn("WebSocket connection attempt - User ID missing - Session ID: {}, User ID: {}", sessionId, userId);
         }
     }
-} 
\ No newline at end of file
+
+    // New subscribers to a room's participant topic get the full roster once; deltas follow on the topic
+    @EventListener
+    public void handleSubscribeListener(SessionSubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = headerAccessor.getDestination();
+        if (destination == null
+                || !destination.startsWith(PARTICIPANT_TOPIC_PREFIX)
+                || !destination.endsWith(PARTICIPANT_TOPIC_SUFFIX)) {
+            return;
+        }
+        String roomId = destination.substring(PARTICIPANT_TOPIC_PREFIX.length(),
+                destination.length() - PARTICIPANT_TOPIC_SUFFIX.length());
+        String userId = webSocketSessionService.getUserIdBySessionId(headerAccessor.getSessionId());
+        webRTCService.sendParticipantSnapshot(roomId, userId);
+    }
+}
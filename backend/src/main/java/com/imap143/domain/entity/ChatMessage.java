@@ -1,12 +1,18 @@
 package com.imap143.domain.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
 
 @Data
 @Document(collection = "messages")
+@CompoundIndexes({
+    @CompoundIndex(name = "room_timestamp_id", def = "{'roomId': 1, 'timestamp': 1, '_id': 1}"),
+    @CompoundIndex(name = "room_sequence", def = "{'roomId': 1, 'sequence': 1}")
+})
 public class ChatMessage {
     @Id
     private String id;
@@ -15,8 +21,11 @@ public class ChatMessage {
     private String senderName;
     private String content;
     private String imageUrl;
+    private String thumbnailUrl;    // Resized variants of imageUrl, served as the original until generated
+    private String mediumUrl;
     private MessageType type;
     private long timestamp;
+    private long sequence;      // Server-assigned, monotonic per room
 
     public enum MessageType {
         CHAT,           
@@ -26,6 +35,8 @@ public class ChatMessage {
         OFFER,          // WebRTC offer
         ANSWER,         // WebRTC answer
         ICE_CANDIDATE,   // WebRTC ICE candidate
-        MEDIA_STATUS
+        ICE_CANDIDATE_BATCH, // Coalesced ICE candidates, signal is an array
+        MEDIA_STATUS,
+        ROSTER          // Peers a joiner should connect to, sent once per join
     }
 }
\ No newline at end of file
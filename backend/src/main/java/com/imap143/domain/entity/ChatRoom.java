@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -25,4 +26,7 @@ public class ChatRoom {
     
     @Field("active_participants")
     private List<String> activeParticipants = new ArrayList<>();
+
+    @Transient
+    private long participantVersion;    // In-memory roster version, bumped under the room lock
 } 
\ No newline at end of file
@@ -2,14 +2,15 @@ package com.imap143.domain.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import com.imap143.domain.entity.ChatMessage;
 
 @Repository
-public interface ChatMessageRepository extends MongoRepository<ChatMessage, String> {
-    List<ChatMessage> findByRoomIdOrderByTimestampAsc(String roomId);
+public interface ChatMessageRepository extends MongoRepository<ChatMessage, String>, ChatMessageRepositoryCustom {
     List<ChatMessage> findByRoomIdAndTimestampGreaterThanOrderByTimestampAsc(String roomId, long timestamp);
+    List<ChatMessage> findByRoomIdAndSequenceGreaterThanOrderBySequenceAsc(String roomId, long sequence, Pageable pageable);
     void deleteByRoomId(String roomId);
 } 
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.imap143.domain.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import com.imap143.domain.entity.ChatMessage;
+
+public interface ChatMessageRepositoryCustom {
+    // Newest first, strictly older than (timestamp, id); a null timestamp starts from the latest message
+    List<ChatMessage> findPageBefore(String roomId, Long timestamp, String id, int limit);
+
+    // Oldest first, strictly newer than (timestamp, id)
+    List<ChatMessage> findPageAfter(String roomId, long timestamp, String id, int limit);
+
+    // roomId -> highest stored sequence
+    Map<String, Long> findMaxSequenceByRoom();
+}
@@ -0,0 +1,65 @@
+package com.imap143.domain.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.imap143.domain.entity.ChatMessage;
+
+import lombok.RequiredArgsConstructor;
+
+// Keyset queries served by the (roomId, timestamp, _id) compound index
+@RequiredArgsConstructor
+public class ChatMessageRepositoryCustomImpl implements ChatMessageRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ChatMessage> findPageBefore(String roomId, Long timestamp, String id, int limit) {
+        Criteria criteria = where("roomId").is(roomId);
+        if (timestamp != null) {
+            criteria = criteria.orOperator(
+                    where("timestamp").lt(timestamp),
+                    where("timestamp").is(timestamp).and("id").lt(id));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, ChatMessage.class);
+    }
+
+    @Override
+    public List<ChatMessage> findPageAfter(String roomId, long timestamp, String id, int limit) {
+        Criteria criteria = where("roomId").is(roomId).orOperator(
+                where("timestamp").gt(timestamp),
+                where("timestamp").is(timestamp).and("id").gt(id));
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, ChatMessage.class);
+    }
+
+    @Override
+    public Map<String, Long> findMaxSequenceByRoom() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("roomId").max("sequence").as("maxSequence"));
+        Map<String, Long> maxSequences = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, ChatMessage.class, Document.class)) {
+            Object roomId = result.get("_id");
+            Object maxSequence = result.get("maxSequence");
+            if (roomId != null && maxSequence instanceof Number number) {
+                maxSequences.put(roomId.toString(), number.longValue());
+            }
+        }
+        return maxSequences;
+    }
+}
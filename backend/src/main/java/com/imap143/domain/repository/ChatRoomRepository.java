@@ -8,7 +8,7 @@ import org.springframework.stereotype.Repository;
 import com.imap143.domain.entity.ChatRoom;
 
 @Repository
-public interface ChatRoomRepository extends MongoRepository<ChatRoom, String> {
+public interface ChatRoomRepository extends MongoRepository<ChatRoom, String>, ChatRoomRepositoryCustom {
     List<ChatRoom> findByParticipantsContaining(String userId);
     List<ChatRoom> findByActiveParticipantsContaining(String userId);
 } 
\ No newline at end of file
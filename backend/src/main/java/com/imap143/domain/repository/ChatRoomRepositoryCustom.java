@@ -0,0 +1,7 @@
+package com.imap143.domain.repository;
+
+import java.util.List;
+
+public interface ChatRoomRepositoryCustom {
+    void applyParticipantChanges(List<ParticipantChange> changes);
+}
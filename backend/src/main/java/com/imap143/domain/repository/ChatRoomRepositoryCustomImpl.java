@@ -0,0 +1,52 @@
+package com.imap143.domain.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.imap143.domain.entity.ChatRoom;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ChatRoomRepositoryCustomImpl implements ChatRoomRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Ordered so changes to the same room are applied in the order they happened in memory
+    @Override
+    public void applyParticipantChanges(List<ParticipantChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ChatRoom.class);
+        for (ParticipantChange change : changes) {
+            switch (change.getType()) {
+                case JOIN -> bulk.updateOne(
+                        query(where("id").is(change.getRoomId())),
+                        new Update()
+                                .addToSet("participants", change.getUserId())
+                                .addToSet("activeParticipants", change.getUserId()));
+                case LEAVE -> bulk.updateOne(
+                        query(where("id").is(change.getRoomId())),
+                        new Update()
+                                .pull("participants", change.getUserId())
+                                .pull("activeParticipants", change.getUserId()));
+                case DEACTIVATE -> {
+                    bulk.updateOne(
+                            query(where("id").is(change.getRoomId())),
+                            new Update().pull("activeParticipants", change.getUserId()));
+                    bulk.remove(query(where("id").is(change.getRoomId()).and("activeParticipants").size(0)));
+                }
+                case DELETE -> bulk.remove(query(where("id").is(change.getRoomId())));
+            }
+        }
+        bulk.execute();
+    }
+}
@@ -0,0 +1,33 @@
+package com.imap143.domain.repository;
+
+import lombok.Value;
+
+@Value
+public class ParticipantChange {
+    String roomId;
+    String userId;
+    Type type;
+
+    public enum Type {
+        JOIN,           // $addToSet to participants and active participants
+        LEAVE,          // $pull from participants and active participants
+        DEACTIVATE,     // $pull from active participants, delete room if now empty
+        DELETE
+    }
+
+    public static ParticipantChange join(String roomId, String userId) {
+        return new ParticipantChange(roomId, userId, Type.JOIN);
+    }
+
+    public static ParticipantChange leave(String roomId, String userId) {
+        return new ParticipantChange(roomId, userId, Type.LEAVE);
+    }
+
+    public static ParticipantChange deactivate(String roomId, String userId) {
+        return new ParticipantChange(roomId, userId, Type.DEACTIVATE);
+    }
+
+    public static ParticipantChange delete(String roomId) {
+        return new ParticipantChange(roomId, null, Type.DELETE);
+    }
+}
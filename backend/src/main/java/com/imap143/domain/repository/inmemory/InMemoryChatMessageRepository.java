@@ -0,0 +1,148 @@
+package com.imap143.domain.repository.inmemory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.data.domain.Pageable;
+
+import com.imap143.domain.entity.ChatMessage;
+import com.imap143.domain.repository.ChatMessageRepository;
+
+// Per-room skip lists ordered like the (roomId, timestamp, _id) index, so keyset pages are range views
+public class InMemoryChatMessageRepository extends InMemoryMongoRepository<ChatMessage> implements ChatMessageRepository {
+
+    private static final String MAX_ID = "\uffff";
+
+    private final Map<String, NavigableMap<MessageKey, ChatMessage>> rooms = new ConcurrentHashMap<>(); // roomId -> messages
+
+    private record MessageKey(long timestamp, String id) implements Comparable<MessageKey> {
+        private static MessageKey of(ChatMessage message) {
+            return new MessageKey(message.getTimestamp(), message.getId());
+        }
+
+        @Override
+        public int compareTo(MessageKey other) {
+            int byTimestamp = Long.compare(timestamp, other.timestamp);
+            return byTimestamp != 0 ? byTimestamp : id.compareTo(other.id);
+        }
+    }
+
+    @Override
+    protected String getId(ChatMessage message) {
+        return message.getId();
+    }
+
+    @Override
+    protected void setId(ChatMessage message, String id) {
+        message.setId(id);
+    }
+
+    @Override
+    protected ChatMessage copy(ChatMessage message) {
+        ChatMessage copy = new ChatMessage();
+        copy.setId(message.getId());
+        copy.setRoomId(message.getRoomId());
+        copy.setSenderId(message.getSenderId());
+        copy.setSenderName(message.getSenderName());
+        copy.setContent(message.getContent());
+        copy.setImageUrl(message.getImageUrl());
+        copy.setThumbnailUrl(message.getThumbnailUrl());
+        copy.setMediumUrl(message.getMediumUrl());
+        copy.setType(message.getType());
+        copy.setTimestamp(message.getTimestamp());
+        copy.setSequence(message.getSequence());
+        return copy;
+    }
+
+    @Override
+    protected void indexed(ChatMessage previous, ChatMessage current) {
+        if (previous != null) {
+            NavigableMap<MessageKey, ChatMessage> room = rooms.get(previous.getRoomId());
+            if (room != null) {
+                room.remove(MessageKey.of(previous));
+            }
+        }
+        if (current != null) {
+            rooms.computeIfAbsent(current.getRoomId(), id -> new ConcurrentSkipListMap<>())
+                .put(MessageKey.of(current), current);
+        }
+    }
+
+    @Override
+    public List<ChatMessage> findPageBefore(String roomId, Long timestamp, String id, int limit) {
+        NavigableMap<MessageKey, ChatMessage> room = room(roomId);
+        NavigableMap<MessageKey, ChatMessage> older = timestamp == null
+            ? room
+            : room.headMap(new MessageKey(timestamp, id == null ? "" : id), false);
+        return limit(older.descendingMap().values(), limit);
+    }
+
+    @Override
+    public List<ChatMessage> findPageAfter(String roomId, long timestamp, String id, int limit) {
+        NavigableMap<MessageKey, ChatMessage> newer = room(roomId)
+            .tailMap(new MessageKey(timestamp, id == null ? MAX_ID : id), false);
+        return limit(newer.values(), limit);
+    }
+
+    @Override
+    public List<ChatMessage> findByRoomIdAndTimestampGreaterThanOrderByTimestampAsc(String roomId, long timestamp) {
+        return copies(room(roomId).tailMap(new MessageKey(timestamp, MAX_ID), false).values());
+    }
+
+    @Override
+    public List<ChatMessage> findByRoomIdAndSequenceGreaterThanOrderBySequenceAsc(String roomId, long sequence, Pageable pageable) {
+        List<ChatMessage> matches = new ArrayList<>();
+        for (ChatMessage message : room(roomId).values()) {
+            if (message.getSequence() > sequence) {
+                matches.add(message);
+            }
+        }
+        matches.sort(Comparator.comparingLong(ChatMessage::getSequence));
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), matches.size());
+            int to = Math.min(from + pageable.getPageSize(), matches.size());
+            matches = matches.subList(from, to);
+        }
+        return copies(matches);
+    }
+
+    @Override
+    public void deleteByRoomId(String roomId) {
+        NavigableMap<MessageKey, ChatMessage> room = rooms.remove(roomId);
+        if (room != null) {
+            room.values().forEach(message -> documents.remove(message.getId()));
+        }
+    }
+
+    @Override
+    public Map<String, Long> findMaxSequenceByRoom() {
+        Map<String, Long> maxSequences = new HashMap<>();
+        rooms.forEach((roomId, messages) -> messages.values().stream()
+            .mapToLong(ChatMessage::getSequence)
+            .max()
+            .ifPresent(max -> maxSequences.put(roomId, max)));
+        return maxSequences;
+    }
+
+    private NavigableMap<MessageKey, ChatMessage> room(String roomId) {
+        NavigableMap<MessageKey, ChatMessage> room = rooms.get(roomId);
+        return room == null ? new ConcurrentSkipListMap<>() : room;
+    }
+
+    private List<ChatMessage> limit(Iterable<ChatMessage> messages, int limit) {
+        List<ChatMessage> page = new ArrayList<>(Math.min(limit, 256));
+        for (ChatMessage message : messages) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(copy(message));
+        }
+        return page;
+    }
+}
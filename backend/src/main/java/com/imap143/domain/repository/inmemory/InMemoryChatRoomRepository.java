@@ -0,0 +1,82 @@
+package com.imap143.domain.repository.inmemory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.imap143.domain.entity.ChatRoom;
+import com.imap143.domain.repository.ChatRoomRepository;
+import com.imap143.domain.repository.ParticipantChange;
+
+public class InMemoryChatRoomRepository extends InMemoryMongoRepository<ChatRoom> implements ChatRoomRepository {
+
+    @Override
+    protected String getId(ChatRoom room) {
+        return room.getId();
+    }
+
+    @Override
+    protected void setId(ChatRoom room, String id) {
+        room.setId(id);
+    }
+
+    // participantVersion is @Transient, so like a MongoDB read the copy starts again at zero
+    @Override
+    protected ChatRoom copy(ChatRoom room) {
+        ChatRoom copy = new ChatRoom();
+        copy.setId(room.getId());
+        copy.setName(room.getName());
+        copy.setCreatedBy(room.getCreatedBy());
+        copy.setCreatedAt(room.getCreatedAt());
+        copy.setParticipants(new ArrayList<>(room.getParticipants()));
+        copy.setActiveParticipants(new ArrayList<>(room.getActiveParticipants()));
+        return copy;
+    }
+
+    @Override
+    public List<ChatRoom> findByParticipantsContaining(String userId) {
+        return copies(documents.values().stream()
+            .filter(room -> room.getParticipants().contains(userId))
+            .toList());
+    }
+
+    @Override
+    public List<ChatRoom> findByActiveParticipantsContaining(String userId) {
+        return copies(documents.values().stream()
+            .filter(room -> room.getActiveParticipants().contains(userId))
+            .toList());
+    }
+
+    // Same effect as the ordered bulk write: each change replaces the stored room with an updated copy
+    @Override
+    public void applyParticipantChanges(List<ParticipantChange> changes) {
+        for (ParticipantChange change : changes) {
+            String userId = change.getUserId();
+            switch (change.getType()) {
+                case JOIN -> documents.computeIfPresent(change.getRoomId(), (id, stored) -> {
+                    ChatRoom room = copy(stored);
+                    addToSet(room.getParticipants(), userId);
+                    addToSet(room.getActiveParticipants(), userId);
+                    return room;
+                });
+                case LEAVE -> documents.computeIfPresent(change.getRoomId(), (id, stored) -> {
+                    ChatRoom room = copy(stored);
+                    room.getParticipants().removeIf(userId::equals);
+                    room.getActiveParticipants().removeIf(userId::equals);
+                    return room;
+                });
+                case DEACTIVATE -> documents.computeIfPresent(change.getRoomId(), (id, stored) -> {
+                    ChatRoom room = copy(stored);
+                    room.getActiveParticipants().removeIf(userId::equals);
+                    return room.getActiveParticipants().isEmpty() ? null : room;
+                });
+                case DELETE -> documents.remove(change.getRoomId());
+            }
+        }
+    }
+
+    private static void addToSet(List<String> values, String value) {
+        if (!values.contains(value)) {
+            values.add(value);
+        }
+    }
+}
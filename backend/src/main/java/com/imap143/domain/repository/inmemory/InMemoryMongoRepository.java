@@ -0,0 +1,189 @@
+package com.imap143.domain.repository.inmemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+// CRUD half of MongoRepository over a ConcurrentHashMap. Documents are copied on the way in and out,
+// like a round trip through the driver, so callers never share instances with the store.
+// Example, Sort and Pageable finders are not used by the services and are left unsupported.
+public abstract class InMemoryMongoRepository<T> implements MongoRepository<T, String> {
+
+    protected final Map<String, T> documents = new ConcurrentHashMap<>(); // id -> stored copy
+
+    protected abstract String getId(T document);
+
+    protected abstract void setId(T document, String id);
+
+    protected abstract T copy(T document);
+
+    // Hook for subclasses that keep secondary indexes; called inside documents.compute for the id
+    protected void indexed(T previous, T current) {
+    }
+
+    protected List<T> copies(Iterable<T> stored) {
+        List<T> result = new ArrayList<>();
+        stored.forEach(document -> result.add(copy(document)));
+        return result;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        if (getId(entity) == null) {
+            setId(entity, new ObjectId().toHexString());
+        }
+        T stored = copy(entity);
+        documents.compute(getId(entity), (id, previous) -> {
+            indexed(previous, stored);
+            return stored;
+        });
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        if (getId(entity) == null) {
+            setId(entity, new ObjectId().toHexString());
+        }
+        T stored = copy(entity);
+        documents.compute(getId(entity), (id, previous) -> {
+            if (previous != null) {
+                throw new DuplicateKeyException("Duplicate key: " + id);
+            }
+            indexed(null, stored);
+            return stored;
+        });
+        return entity;
+    }
+
+    // Stops at the first duplicate, leaving earlier documents inserted, like an ordered insertMany
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        entities.forEach(entity -> inserted.add(insert(entity)));
+        return inserted;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(documents.get(id)).map(this::copy);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return copies(documents.values());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        List<T> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return documents.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        documents.computeIfPresent(id, (key, previous) -> {
+            indexed(previous, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(getId(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        documents.keySet().forEach(this::deleteById);
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        throw unsupported();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Not supported by the in-memory repository");
+    }
+}
@@ -0,0 +1,125 @@
+package com.imap143.api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imap143.application.service.FileStorageService;
+import com.imap143.application.service.ImageVariantService;
+import com.imap143.application.service.TestStorage;
+import com.imap143.application.service.UploadServingService;
+
+class UploadServingControllerTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final String NAME = HASH + ".png";
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageVariantService variantService;
+    private UploadServingController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileStorageService storageService = TestStorage.fileStorage(uploadDir);
+        // Only variantPath is used; variant files are written by the tests themselves
+        variantService = TestStorage.imageVariants(uploadDir);
+
+        UploadServingService servingService = new UploadServingService(storageService, variantService);
+        ReflectionTestUtils.setField(servingService, "cacheMaxBytes", 1024L);
+        ReflectionTestUtils.setField(servingService, "cacheMaxFileBytes", 16L);
+        controller = new UploadServingController(servingService);
+        ReflectionTestUtils.setField(controller, "sendfileMinBytes", 1024L);
+
+        Files.createDirectories(uploadDir.resolve("room-a"));
+        Files.writeString(uploadDir.resolve("room-a").resolve(NAME), CONTENT);
+    }
+
+    @Test
+    void servesImmutableWithStrongEtag() throws Exception {
+        MockHttpServletResponse response = serve(null, NAME, request());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + HASH + "\"");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+
+        MockHttpServletRequest revalidate = request();
+        revalidate.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\"");
+        MockHttpServletResponse notModified = serve(null, NAME, revalidate);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        MockHttpServletRequest range = request();
+        range.addHeader(HttpHeaders.RANGE, "bytes=10-15");
+        MockHttpServletResponse partial = serve(null, NAME, range);
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 10-15/" + CONTENT.length());
+        assertThat(partial.getContentAsString()).isEqualTo("abcdef");
+
+        MockHttpServletRequest suffix = request();
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        assertThat(serve(null, NAME, suffix).getContentAsString()).isEqualTo("xyz");
+
+        MockHttpServletRequest outside = request();
+        outside.addHeader(HttpHeaders.RANGE, "bytes=100-");
+        MockHttpServletResponse unsatisfiable = serve(null, NAME, outside);
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */" + CONTENT.length());
+
+        MockHttpServletRequest staleIfRange = request();
+        staleIfRange.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+        staleIfRange.addHeader(HttpHeaders.IF_RANGE, "\"something-else\"");
+        assertThat(serve(null, NAME, staleIfRange).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void variantFallsBackToOriginalUntilGenerated() throws Exception {
+        MockHttpServletResponse fallback = serve("thumb", NAME, request());
+        assertThat(fallback.getStatus()).isEqualTo(200);
+        assertThat(fallback.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        assertThat(fallback.getContentAsString()).isEqualTo(CONTENT);
+
+        Path thumb = variantService.variantPath(HASH, ImageVariantService.Variant.THUMB);
+        Files.createDirectories(thumb.getParent());
+        Files.write(thumb, "thumbnail".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse variant = serve("thumb", NAME, request());
+        assertThat(variant.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + HASH + ".thumb\"");
+        assertThat(variant.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        assertThat(variant.getContentType()).isEqualTo("image/jpeg");
+        assertThat(variant.getContentAsString()).isEqualTo("thumbnail");
+    }
+
+    @Test
+    void rejectsUnknownAndMalformedPaths() throws Exception {
+        assertThat(serve(null, "missing.png", request()).getStatus()).isEqualTo(404);
+        assertThat(serve(null, "..", request()).getStatus()).isEqualTo(404);
+        assertThat(serve("huge", NAME, request()).getStatus()).isEqualTo(404);
+    }
+
+    private MockHttpServletResponse serve(String variant, String name, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve("room-a", variant, name, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/uploads/room-a/" + NAME);
+    }
+}
@@ -0,0 +1,241 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+
+import com.imap143.application.dto.ParticipantEvent;
+import com.imap143.domain.entity.ChatRoom;
+import com.imap143.domain.repository.ChatRoomRepository;
+import com.imap143.domain.repository.ParticipantChange;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteResult;
+
+class ChatRoomServiceConcurrencyTest {
+
+    private static final String ROOM_ID = "room-1";
+    private static final String OWNER_ID = "owner";
+    private static final int USERS = 400;
+
+    private final List<ParticipantChange> persisted = Collections.synchronizedList(new ArrayList<>());
+    private final MessageFanout messageFanout = mock(MessageFanout.class);
+    private ChatRoomRegistry chatRoomRegistry;
+    private ChatRoomService chatRoomService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+        when(chatRoomRepository.findAll()).thenReturn(List.of());
+        doAnswer(invocation -> {
+            persisted.addAll(invocation.getArgument(0));
+            return null;
+        }).when(chatRoomRepository).applyParticipantChanges(anyList());
+
+        chatRoomRegistry = new ChatRoomRegistry(chatRoomRepository);
+        chatRoomRegistry.loadRooms();
+        chatRoomService = new ChatRoomService(chatRoomRepository, chatRoomRegistry, messageFanout);
+
+        ChatRoom room = new ChatRoom();
+        room.setId(ROOM_ID);
+        room.getParticipants().add(OWNER_ID);
+        room.getActiveParticipants().add(OWNER_ID);
+        chatRoomRegistry.register(room);
+
+        executor = Executors.newFixedThreadPool(32);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void parallelJoinsAndLeavesAreNeitherLostNorReordered() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < USERS; i++) {
+            String userId = "user-" + i;
+            boolean leaves = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                chatRoomService.joinRoom(ROOM_ID, userId);
+                if (leaves) {
+                    chatRoomService.removeFromActiveParticipants(ROOM_ID, userId);
+                }
+                // Interleave write-behind flushes with the mutations
+                chatRoomRegistry.flush();
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        chatRoomRegistry.flush();
+
+        Set<String> expectedActive = new LinkedHashSet<>();
+        Set<String> expectedParticipants = new LinkedHashSet<>();
+        expectedActive.add(OWNER_ID);
+        expectedParticipants.add(OWNER_ID);
+        for (int i = 0; i < USERS; i++) {
+            expectedParticipants.add("user-" + i);
+            if (i % 2 != 0) {
+                expectedActive.add("user-" + i);
+            }
+        }
+
+        List<String> active = chatRoomService.getRoomParticipants(ROOM_ID);
+        assertThat(active).containsExactlyInAnyOrderElementsOf(expectedActive);
+        assertThat(chatRoomService.getRoom(ROOM_ID).getParticipants())
+                .containsExactlyInAnyOrderElementsOf(expectedParticipants);
+
+        // Replaying the persisted update operators must land on the same state as memory
+        Map<String, Set<String>> replayed = replay(persisted);
+        assertThat(replayed.get("active")).containsExactlyInAnyOrderElementsOf(expectedActive);
+        assertThat(replayed.get("participants")).containsExactlyInAnyOrderElementsOf(expectedParticipants);
+    }
+
+    @Test
+    void lastDeactivationDeletesRoomExactlyOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < USERS; i++) {
+            String userId = "user-" + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                chatRoomService.joinRoom(ROOM_ID, userId);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        futures.clear();
+        CountDownLatch leave = new CountDownLatch(1);
+        List<String> everyone = new ArrayList<>(chatRoomService.getRoomParticipants(ROOM_ID));
+        for (String userId : everyone) {
+            futures.add(executor.submit(() -> {
+                leave.await();
+                try {
+                    chatRoomService.removeFromActiveParticipants(ROOM_ID, userId);
+                } catch (RuntimeException e) {
+                    // Room may already be gone for the very last callers; anything else is a real failure
+                    assertThat(e).hasMessageStartingWith("Chat room not found");
+                }
+                return null;
+            }));
+        }
+        leave.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        chatRoomRegistry.flush();
+
+        assertThat(chatRoomRegistry.contains(ROOM_ID)).isFalse();
+        assertThat(replay(persisted).get("active")).isEmpty();
+        assertThat(persisted).filteredOn(change -> change.getType() == ParticipantChange.Type.DELETE).hasSize(1);
+    }
+
+    @Test
+    void everyVersionBumpPublishesItsRosterEvent() {
+        chatRoomService.joinRoom(ROOM_ID, "alice");
+        chatRoomService.joinRoom(ROOM_ID, "alice");
+        chatRoomService.leaveRoom(ROOM_ID, "alice");
+        chatRoomService.joinRoom(ROOM_ID, "bob");
+        chatRoomService.removeFromActiveParticipants(ROOM_ID, "bob");
+
+        ArgumentCaptor<ParticipantEvent> events = ArgumentCaptor.forClass(ParticipantEvent.class);
+        verify(messageFanout, times(4)).send(eq(ChatRoomService.participantTopic(ROOM_ID)), events.capture(),
+                eq(MessageFanout.Priority.LOW));
+        assertThat(events.getAllValues()).extracting(ParticipantEvent::getType).containsExactly(
+                ParticipantEvent.Type.JOINED, ParticipantEvent.Type.LEFT,
+                ParticipantEvent.Type.JOINED, ParticipantEvent.Type.LEFT);
+        // Consecutive versions, ending at the room's current one, so no subscriber sees a gap
+        assertThat(events.getAllValues()).extracting(ParticipantEvent::getVersion).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(chatRoomService.getRoom(ROOM_ID).getParticipantVersion()).isEqualTo(4);
+    }
+
+    @Test
+    void rejectedChangeIsDroppedWithoutBlockingTheRest() {
+        ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+        ParticipantChange poison = ParticipantChange.join(ROOM_ID, "poison");
+        List<List<ParticipantChange>> calls = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<ParticipantChange> changes = List.copyOf(invocation.getArgument(0));
+            calls.add(changes);
+            if (changes.contains(poison)) {
+                throw new BulkOperationException("rejected", new MongoBulkWriteException(
+                        BulkWriteResult.unacknowledged(), List.of(), null, new ServerAddress(), Set.of()));
+            }
+            persisted.addAll(changes);
+            return null;
+        }).when(chatRoomRepository).applyParticipantChanges(anyList());
+        ChatRoomRegistry registry = new ChatRoomRegistry(chatRoomRepository);
+
+        registry.recordChange(ParticipantChange.join(ROOM_ID, "before"));
+        registry.recordChange(poison);
+        registry.recordChange(ParticipantChange.join(ROOM_ID, "after"));
+        registry.flush();
+        int callsAfterFirstFlush = calls.size();
+        registry.flush();
+
+        assertThat(persisted).extracting(ParticipantChange::getUserId).containsExactly("before", "after");
+        assertThat(calls).hasSize(callsAfterFirstFlush);
+    }
+
+    private Map<String, Set<String>> replay(List<ParticipantChange> changes) {
+        Set<String> active = new LinkedHashSet<>(List.of(OWNER_ID));
+        Set<String> participants = new LinkedHashSet<>(List.of(OWNER_ID));
+        synchronized (changes) {
+            for (ParticipantChange change : changes) {
+                switch (change.getType()) {
+                    case JOIN -> {
+                        participants.add(change.getUserId());
+                        active.add(change.getUserId());
+                    }
+                    case LEAVE -> {
+                        participants.remove(change.getUserId());
+                        active.remove(change.getUserId());
+                    }
+                    case DEACTIVATE -> active.remove(change.getUserId());
+                    case DELETE -> active.clear();
+                }
+            }
+        }
+        Map<String, Set<String>> state = new HashMap<>();
+        state.put("active", active);
+        state.put("participants", participants);
+        return state;
+    }
+}
@@ -0,0 +1,157 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imap143.application.service.ChunkedUploadService.UploadStatus;
+import com.imap143.application.service.FileStorageService.StoredFile;
+
+class ChunkedUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 16;
+
+    @TempDir
+    Path uploadDir;
+
+    private FileStorageService storageService;
+    private ChunkedUploadService chunkedUploadService;
+
+    @BeforeEach
+    void setUp() {
+        storageService = TestStorage.fileStorage(uploadDir);
+
+        chunkedUploadService = new ChunkedUploadService(storageService);
+        ReflectionTestUtils.setField(chunkedUploadService, "maxBytes", 4096L);
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkSize", CHUNK_SIZE);
+        ReflectionTestUtils.setField(chunkedUploadService, "maxSessions", 4);
+        ReflectionTestUtils.setField(chunkedUploadService, "sessionTtlMs", 60_000L);
+    }
+
+    @Test
+    void parallelOutOfOrderChunksAssembleToTheStreamedUrl() throws Exception {
+        byte[] content = content(100);
+        UploadStatus started = chunkedUploadService.init("room-a", "alice", "clip.png", "image/png", content.length);
+        assertThat(started.chunkCount()).isEqualTo(7);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<UploadStatus>> puts = IntStream.of(6, 3, 0, 5, 1, 4, 2)
+                .mapToObj(index -> executor.submit(() -> put(started.uploadId(), content, index)))
+                .toList();
+            for (Future<UploadStatus> put : puts) {
+                put.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        StoredFile stored = chunkedUploadService.complete(started.uploadId(), "alice");
+        StoredFile streamed = storageService.store("room-a", new ByteArrayInputStream(content), "clip.png", "image/png");
+        assertThat(stored.url()).isEqualTo(streamed.url());
+        assertThat(streamed.deduplicated()).isTrue();
+        assertThat(Files.readAllBytes(uploadDir.resolve("room-a").resolve(stored.hash() + ".png"))).isEqualTo(content);
+        assertThat(uploadDir.resolve(FileStorageService.TEMP_DIR)).isEmptyDirectory();
+    }
+
+    @Test
+    void resumesFromMissingChunks() throws Exception {
+        byte[] content = content(40);
+        UploadStatus started = chunkedUploadService.init("room-a", "alice", "notes.txt", "text/plain", content.length);
+        put(started.uploadId(), content, 1);
+
+        UploadStatus status = chunkedUploadService.getStatus(started.uploadId(), "alice");
+        assertThat(status.missingChunks()).containsExactly(0, 2);
+        assertThat(status.receivedBytes()).isEqualTo(CHUNK_SIZE);
+        assertThat(chunkedUploadService.complete(started.uploadId(), "alice")).isNull();
+
+        for (int index : status.missingChunks()) {
+            put(started.uploadId(), content, index);
+        }
+        assertThat(chunkedUploadService.complete(started.uploadId(), "alice").url()).endsWith(".txt");
+    }
+
+    @Test
+    void failedCompleteKeepsTheUploadForARetry() throws Exception {
+        byte[] content = content(40);
+        UploadStatus started = chunkedUploadService.init("room-a", "alice", "notes.txt", "text/plain", content.length);
+        for (int index = 0; index < started.chunkCount(); index++) {
+            put(started.uploadId(), content, index);
+        }
+        // A plain file where the blob's shard directory should be makes the move into the store fail
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        Path shard = storageService.blobPath(hash + ".txt").getParent();
+        Files.createDirectories(shard.getParent());
+        Files.writeString(shard, "in the way");
+        Path part = uploadDir.resolve(FileStorageService.TEMP_DIR).resolve(started.uploadId() + ChunkedUploadService.PART_SUFFIX);
+
+        assertThatThrownBy(() -> chunkedUploadService.complete(started.uploadId(), "alice"))
+            .isInstanceOf(RuntimeException.class);
+        assertThat(part).exists();
+        assertThat(chunkedUploadService.isActive(part)).isTrue();
+        assertThat(chunkedUploadService.getStatus(started.uploadId(), "alice").missingChunks()).isEmpty();
+
+        Files.delete(shard);
+        StoredFile stored = chunkedUploadService.complete(started.uploadId(), "alice");
+        assertThat(Files.readAllBytes(uploadDir.resolve("room-a").resolve(stored.hash() + ".txt"))).isEqualTo(content);
+        assertThat(part).doesNotExist();
+        assertThat(chunkedUploadService.isActive(part)).isFalse();
+    }
+
+    @Test
+    void rejectsMisalignedOrMisSizedChunksAndForeignUsers() throws Exception {
+        UploadStatus started = chunkedUploadService.init("room-a", "alice", "notes.txt", "text/plain", 40);
+        String uploadId = started.uploadId();
+
+        assertThatThrownBy(() -> chunkedUploadService.putChunk(uploadId, "alice", 5, stream(16)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chunkedUploadService.putChunk(uploadId, "alice", 0, stream(17)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chunkedUploadService.putChunk(uploadId, "alice", 32, stream(7)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chunkedUploadService.getStatus(uploadId, "mallory"))
+            .isInstanceOf(NoSuchElementException.class);
+        assertThat(chunkedUploadService.getStatus(uploadId, "alice").receivedBytes()).isZero();
+
+        chunkedUploadService.abort(uploadId, "alice");
+        assertThat(uploadDir.resolve(FileStorageService.TEMP_DIR)).isEmptyDirectory();
+        assertThatThrownBy(() -> chunkedUploadService.getStatus(uploadId, "alice"))
+            .isInstanceOf(NoSuchElementException.class);
+    }
+
+    private UploadStatus put(String uploadId, byte[] content, int index) throws Exception {
+        int from = index * CHUNK_SIZE;
+        byte[] chunk = Arrays.copyOfRange(content, from, Math.min(content.length, from + CHUNK_SIZE));
+        return chunkedUploadService.putChunk(uploadId, "alice", from, new ByteArrayInputStream(chunk));
+    }
+
+    private static ByteArrayInputStream stream(int length) {
+        return new ByteArrayInputStream(new byte[length]);
+    }
+
+    private static byte[] content(int length) {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < length) {
+            builder.append("chunked upload content ");
+        }
+        return builder.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,37 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ClientCapabilityServiceTest {
+
+    private final ClientCapabilityService capabilities = new ClientCapabilityService();
+
+    @Test
+    void capabilityHoldsOnlyWhileEveryLiveSessionHasIt() {
+        capabilities.register("alice", "tab-1", "ice-batch");
+        assertThat(capabilities.supports("alice", ClientCapabilityService.ICE_BATCH)).isTrue();
+
+        // An older client in a second tab must not receive batches it cannot parse
+        capabilities.register("alice", "tab-2", null);
+        assertThat(capabilities.supports("alice", ClientCapabilityService.ICE_BATCH)).isFalse();
+
+        capabilities.removeSession("alice", "tab-2");
+        assertThat(capabilities.supports("alice", ClientCapabilityService.ICE_BATCH)).isTrue();
+
+        capabilities.removeSession("alice", "tab-1");
+        assertThat(capabilities.supports("alice", ClientCapabilityService.ICE_BATCH)).isFalse();
+    }
+
+    @Test
+    void disconnectOfOneSessionKeepsTheOthers() {
+        capabilities.register("bob", "tab-1", "ice-batch");
+        capabilities.register("bob", "tab-2", "ice-batch, other");
+
+        capabilities.removeSession("bob", "tab-1");
+
+        assertThat(capabilities.supports("bob", ClientCapabilityService.ICE_BATCH)).isTrue();
+        assertThat(capabilities.supports("bob", "other")).isTrue();
+    }
+}
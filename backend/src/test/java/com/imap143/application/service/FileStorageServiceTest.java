@@ -0,0 +1,109 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import com.imap143.application.service.FileStorageService.StoredFile;
+
+class FileStorageServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private FileStorageService storageService;
+
+    @BeforeEach
+    void setUp() {
+        storageService = TestStorage.fileStorage(uploadDir);
+    }
+
+    @Test
+    void identicalUploadsShareOneBlob() throws IOException {
+        StoredFile first = store("room-a", "same picture bytes, longer than the memory threshold");
+        StoredFile second = store("room-b", "same picture bytes, longer than the memory threshold");
+
+        assertThat(first.deduplicated()).isFalse();
+        assertThat(second.deduplicated()).isTrue();
+        assertThat(second.hash()).isEqualTo(first.hash());
+        assertThat(second.url()).isEqualTo("/uploads/room-b/" + first.hash() + ".png");
+        assertThat(Files.readString(uploadDir.resolve("room-b").resolve(first.hash() + ".png")))
+            .isEqualTo("same picture bytes, longer than the memory threshold");
+
+        try (Stream<Path> blobs = Files.walk(uploadDir.resolve(FileStorageService.BLOB_DIR))) {
+            assertThat(blobs.filter(Files::isRegularFile).count()).isEqualTo(1);
+        }
+        // Both passed the memory threshold, so both were spooled once; neither was copied again
+        assertThat(storageService.getStats().getBytesWritten()).isEqualTo(2 * first.size());
+        assertThat(storageService.getStats().getBytesReceived()).isEqualTo(2 * first.size());
+    }
+
+    @Test
+    void smallDuplicateNeverTouchesDisk() {
+        store("room-a", "tiny");
+        long written = storageService.getStats().getBytesWritten();
+
+        store("room-a", "tiny");
+
+        assertThat(storageService.getStats().getBytesWritten()).isEqualTo(written);
+        assertThat(uploadDir.resolve(FileStorageService.TEMP_DIR)).isEmptyDirectory();
+    }
+
+    @Test
+    void concurrentIdenticalUploadsCountOneOriginal() throws Exception {
+        int uploads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        List<Future<StoredFile>> stored = new ArrayList<>();
+        try {
+            for (int i = 0; i < uploads; i++) {
+                String roomId = "room-" + i;
+                stored.add(executor.submit(() -> {
+                    start.await();
+                    return store(roomId, "the same picture, posted everywhere at once");
+                }));
+            }
+            start.countDown();
+            int originals = 0;
+            for (Future<StoredFile> future : stored) {
+                originals += future.get(10, TimeUnit.SECONDS).deduplicated() ? 0 : 1;
+            }
+            assertThat(originals).isEqualTo(1);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(storageService.getStats().getDeduplicated()).isEqualTo(uploads - 1);
+        assertThat(uploadDir.resolve(FileStorageService.TEMP_DIR)).isEmptyDirectory();
+    }
+
+    @Test
+    void rejectsOversizedEmptyAndUnsafeUploads() {
+        assertThatThrownBy(() -> store("room-a", "x".repeat(2048))).isInstanceOf(MaxUploadSizeExceededException.class);
+        assertThatThrownBy(() -> store("room-a", "")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store("../etc", "data")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(uploadDir.resolve(FileStorageService.TEMP_DIR)).isEmptyDirectory();
+    }
+
+    private StoredFile store(String roomId, String content) {
+        return storageService.store(roomId, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+            "photo.PNG", "image/png");
+    }
+}
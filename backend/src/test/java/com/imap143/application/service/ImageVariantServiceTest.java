@@ -0,0 +1,119 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imap143.application.service.ImageVariantService.Variant;
+import com.imap143.application.service.ImageVariantService.VariantUrls;
+
+class ImageVariantServiceTest {
+
+    private static final String HASH = "ab".repeat(32);
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageVariantService variantService;
+
+    @BeforeEach
+    void setUp() {
+        variantService = new ImageVariantService();
+        ReflectionTestUtils.setField(variantService, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(variantService, "thumbnailMaxPx", 320);
+        ReflectionTestUtils.setField(variantService, "mediumMaxPx", 1280);
+        ReflectionTestUtils.setField(variantService, "maxSourcePixels", 50_000_000L);
+        ReflectionTestUtils.setField(variantService, "jpegQuality", 0.8f);
+        ReflectionTestUtils.setField(variantService, "threads", 1);
+        ReflectionTestUtils.setField(variantService, "queueCapacity", 4);
+        variantService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        variantService.shutdown();
+    }
+
+    @Test
+    void largeImageGetsThumbnailAndMedium() throws Exception {
+        variantService.submit(HASH, ".png", image(3000, 1500));
+        awaitGenerated(1);
+
+        assertThat(dimensions(variantService.variantPath(HASH, Variant.THUMB))).containsExactly(320, 160);
+        assertThat(dimensions(variantService.variantPath(HASH, Variant.MEDIUM))).containsExactly(1280, 640);
+    }
+
+    @Test
+    void smallImageSkipsMedium() throws Exception {
+        variantService.submit(HASH, ".png", image(200, 100));
+        awaitGenerated(1);
+
+        assertThat(dimensions(variantService.variantPath(HASH, Variant.THUMB))).containsExactly(200, 100);
+        assertThat(variantService.variantPath(HASH, Variant.MEDIUM)).doesNotExist();
+    }
+
+    @Test
+    void undecodableBlobIsNotQueuedAgain() throws Exception {
+        Path blob = uploadDir.resolve("source.png");
+        Files.writeString(blob, "not actually a picture");
+        variantService.submit(HASH, ".png", blob);
+        Path marker = variantService.skippedPath(HASH);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Files.exists(marker) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(marker).exists();
+
+        // A deduplicated re-upload of the same blob is not decoded again
+        variantService.submit(HASH, ".png", blob);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(variantService, "executor");
+        assertThat(executor.getTaskCount()).isEqualTo(1);
+        assertThat(variantService.variantPath(HASH, Variant.THUMB)).doesNotExist();
+        try (Stream<Path> files = Files.list(marker.getParent())) {
+            assertThat(files).containsExactly(marker);
+        }
+    }
+
+    @Test
+    void variantUrlsOnlyForResizableUploads() {
+        VariantUrls urls = variantService.variantUrls("/uploads/room-a/" + HASH + ".png");
+
+        assertThat(urls.thumbnailUrl()).isEqualTo("/uploads/room-a/thumb/" + HASH + ".png");
+        assertThat(urls.mediumUrl()).isEqualTo("/uploads/room-a/medium/" + HASH + ".png");
+        assertThat(variantService.variantUrls("/uploads/room-a/" + HASH + ".pdf")).isNull();
+        assertThat(variantService.variantUrls("https://example.com/cat.png")).isNull();
+    }
+
+    private Path image(int width, int height) throws IOException {
+        Path file = uploadDir.resolve("source.png");
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", file.toFile());
+        return file;
+    }
+
+    private void awaitGenerated(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (variantService.getGenerated() + variantService.getFailed() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(variantService.getFailed()).isZero();
+        assertThat(variantService.getGenerated()).isEqualTo(count);
+    }
+
+    private static int[] dimensions(Path file) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        return new int[] {image.getWidth(), image.getHeight()};
+    }
+}
@@ -0,0 +1,88 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imap143.application.dto.LatencySnapshot;
+import com.imap143.application.service.LatencyTracer.Stage;
+
+class LatencyTracerTest {
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final MessageHandler annotationHandler = mock(SimpAnnotationMethodMessageHandler.class);
+    private final MessageHandler sessionHandler = mock(MessageHandler.class);
+
+    private LatencyTracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        tracer = new LatencyTracer();
+        ReflectionTestUtils.setField(tracer, "sampleRate", 1.0);
+    }
+
+    @Test
+    void followsSampledFrameThroughEveryStage() {
+        Message<?> inbound = tracer.preSend(message("/app/chat.send"), channel);
+        tracer.beforeHandle(inbound, channel, annotationHandler);
+
+        // The handler publishes to the broker on the same thread
+        Message<?> published = tracer.preSend(message("/topic/room.1"), channel);
+        tracer.afterMessageHandled(inbound, channel, annotationHandler, null);
+        assertThat(tracer.current()).isNull();
+
+        Message<?> outbound = tracer.preSend(published, channel);
+        tracer.afterMessageHandled(outbound, channel, sessionHandler, null);
+
+        Map<Stage, LatencySnapshot> chat = tracer.getSnapshot().get("chat");
+        assertThat(chat).containsKeys(Stage.INBOUND, Stage.HANDLER, Stage.BROKER, Stage.OUTBOUND, Stage.TOTAL);
+        assertThat(chat.get(Stage.TOTAL).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void countsBrokerOncePerPublishAndOutboundPerRecipient() {
+        Message<?> inbound = tracer.preSend(message("/app/chat.send"), channel);
+        tracer.beforeHandle(inbound, channel, annotationHandler);
+        Message<?> published = tracer.preSend(message("/topic/room.1"), channel);
+        tracer.afterMessageHandled(inbound, channel, annotationHandler, null);
+
+        for (int recipient = 0; recipient < 3; recipient++) {
+            Message<?> outbound = tracer.preSend(published, channel);
+            tracer.afterMessageHandled(outbound, channel, sessionHandler, null);
+        }
+
+        Map<Stage, LatencySnapshot> chat = tracer.getSnapshot().get("chat");
+        assertThat(chat.get(Stage.BROKER).getCount()).isEqualTo(1);
+        assertThat(chat.get(Stage.OUTBOUND).getCount()).isEqualTo(3);
+        assertThat(chat.get(Stage.TOTAL).getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void untracedFramesPassThroughUnchanged() {
+        ReflectionTestUtils.setField(tracer, "sampleRate", 0.0);
+        Message<?> inbound = message("/app/chat.send");
+
+        assertThat(tracer.preSend(inbound, channel)).isSameAs(inbound);
+        assertThat(tracer.preSend(message("/app/room.join"), channel).getHeaders())
+            .doesNotContainKey(LatencyTracer.TRACE_HEADER);
+        assertThat(tracer.getSnapshot()).isEmpty();
+    }
+
+    private static Message<?> message(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setDestination(destination);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,126 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imap143.domain.entity.ChatMessage;
+import com.imap143.domain.repository.ChatMessageRepository;
+
+class MessagePersistencePipelineTest {
+
+    private final List<String> inserted = new CopyOnWriteArrayList<>();
+    private ChatMessageRepository repository;
+    private MessagePersistencePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ChatMessageRepository.class);
+        doAnswer(invocation -> {
+            List<ChatMessage> messages = invocation.getArgument(0);
+            messages.forEach(message -> inserted.add(message.getId()));
+            return messages;
+        }).when(repository).insert(anyList());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void discardDropsMessagesAlreadyDrainedIntoTheBatch() throws Exception {
+        // A long flush interval keeps the drained message in the worker's batch while the room is discarded
+        start(300);
+        CompletableFuture<Void> doomed = pipeline.enqueue(message("m1", "deleted-room"));
+        awaitDrained();
+
+        pipeline.discardRoom("deleted-room");
+        CompletableFuture<Void> kept = pipeline.enqueue(message("m2", "live-room"));
+
+        kept.get(2, TimeUnit.SECONDS);
+        assertThat(doomed).isCancelled();
+        assertThat(inserted).containsExactly("m2");
+    }
+
+    @Test
+    void laterMessagesOfADiscardedRoomIdAreStillPersisted() throws Exception {
+        start(10);
+        pipeline.discardRoom("reused-room");
+        pipeline.enqueue(message("m1", "reused-room")).get(2, TimeUnit.SECONDS);
+
+        assertThat(inserted).containsExactly("m1");
+    }
+
+    @Test
+    void acksFollowTheInsertInQueueOrderWithoutBlockingLaterFlushes() throws Exception {
+        start(10);
+        List<String> acked = new CopyOnWriteArrayList<>();
+        CountDownLatch releaseFirstAck = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = pipeline.enqueue(message("m1", "room"));
+        first.thenRun(() -> {
+            await(releaseFirstAck);
+            acked.add("m1");
+        });
+        verify(repository, timeout(2000).times(1)).insert(anyList());
+
+        // The first ack is stuck in its broadcast, yet the next batch is still written
+        CompletableFuture<Void> second = pipeline.enqueue(message("m2", "room"));
+        second.thenRun(() -> acked.add("m2"));
+        verify(repository, timeout(2000).times(2)).insert(anyList());
+        assertThat(second).isNotDone();
+
+        releaseFirstAck.countDown();
+        second.get(2, TimeUnit.SECONDS);
+        assertThat(acked).containsExactly("m1", "m2");
+    }
+
+    private void start(long flushIntervalMs) {
+        pipeline = new MessagePersistencePipeline(repository);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 100);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 10);
+        ReflectionTestUtils.setField(pipeline, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(pipeline, "enqueueTimeoutMs", 100L);
+        ReflectionTestUtils.setField(pipeline, "maxRetries", 0);
+        pipeline.start();
+    }
+
+    private void awaitDrained() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (pipeline.getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(pipeline.getQueueDepth()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ChatMessage message(String id, String roomId) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setRoomId(roomId);
+        message.setType(ChatMessage.MessageType.CHAT);
+        return message;
+    }
+}
@@ -0,0 +1,97 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imap143.api.dto.response.ChatMessageResponse;
+import com.imap143.application.service.RecentMessageCache.CachedPage;
+
+class RecentMessageCacheTest {
+
+    private static final String ROOM_ID = "room-1";
+
+    private RecentMessageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecentMessageCache();
+        ReflectionTestUtils.setField(cache, "capacity", 5);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_000_000L);
+        ReflectionTestUtils.setField(cache, "idleEvictionMs", 600_000L);
+    }
+
+    @Test
+    void unseededRoomMissesEvenAfterWrites() {
+        cache.append(message(ROOM_ID, 1));
+
+        assertThat(cache.latest(ROOM_ID, 10)).isNull();
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void seededRoomServesLatestSinceAndResumeFromMemory() {
+        cache.seed(ROOM_ID, messages(ROOM_ID, 1, 3), true, 3);
+        cache.append(message(ROOM_ID, 4));
+        cache.append(message(ROOM_ID, 5));
+        cache.append(message(ROOM_ID, 6));
+
+        CachedPage latest = cache.latest(ROOM_ID, 3);
+        assertThat(latest.messages()).extracting(ChatMessageResponse::getSequence).containsExactly(4L, 5L, 6L);
+        assertThat(latest.hasMore()).isTrue();
+
+        CachedPage resume = cache.afterSequence(ROOM_ID, 4, 10);
+        assertThat(resume.messages()).extracting(ChatMessageResponse::getSequence).containsExactly(5L, 6L);
+
+        // Message 1 fell out of the ring, so anything older than the buffer goes to MongoDB
+        assertThat(cache.afterSequence(ROOM_ID, 0, 10)).isNull();
+        assertThat(cache.since(ROOM_ID, 1_000L)).isNull();
+        assertThat(cache.since(ROOM_ID, 4_000L).messages()).hasSize(2);
+
+        assertThat(cache.getStats().getHits()).isEqualTo(3);
+        assertThat(cache.getStats().getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void seedWithInFlightGapIsRejected() {
+        cache.seed(ROOM_ID, messages(ROOM_ID, 1, 2), true, 3);
+
+        assertThat(cache.latest(ROOM_ID, 10)).isNull();
+    }
+
+    @Test
+    void memoryCapEvictsLeastRecentlyUsedRooms() {
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_000L);
+        for (int room = 0; room < 10; room++) {
+            cache.seed("room-" + room, messages("room-" + room, 1, 3), true, 3);
+        }
+
+        assertThat(cache.getStats().getEstimatedBytes()).isLessThanOrEqualTo(1_000L);
+        assertThat(cache.getStats().getEvictions()).isPositive();
+        assertThat(cache.getStats().getRooms()).isLessThan(10);
+    }
+
+    private static List<ChatMessageResponse> messages(String roomId, long from, long to) {
+        List<ChatMessageResponse> messages = new ArrayList<>();
+        for (long sequence = from; sequence <= to; sequence++) {
+            messages.add(message(roomId, sequence));
+        }
+        return messages;
+    }
+
+    private static ChatMessageResponse message(String roomId, long sequence) {
+        ChatMessageResponse message = new ChatMessageResponse();
+        message.setId(roomId + "-" + sequence);
+        message.setRoomId(roomId);
+        message.setSenderId("user");
+        message.setContent("message " + sequence);
+        message.setSequence(sequence);
+        message.setTimestamp(sequence * 1_000L);
+        return message;
+    }
+}
@@ -0,0 +1,158 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.imap143.api.dto.response.ChatRoomResponse;
+import com.imap143.application.dto.ReclaimReport;
+import com.imap143.application.service.FileStorageService.StoredFile;
+
+class StorageJanitorTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private FileStorageService storageService;
+    private ImageVariantService variantService;
+    private ChunkedUploadService chunkedUploadService;
+    private StorageJanitor janitor;
+
+    @BeforeEach
+    void setUp() {
+        // Only variantPath is used; variant files are written by the tests themselves
+        variantService = TestStorage.imageVariants(uploadDir);
+        storageService = TestStorage.fileStorage(uploadDir);
+
+        chunkedUploadService = new ChunkedUploadService(storageService);
+        ReflectionTestUtils.setField(chunkedUploadService, "maxBytes", 1024L);
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkSize", 16);
+        ReflectionTestUtils.setField(chunkedUploadService, "maxSessions", 4);
+
+        UploadServingService servingService = new UploadServingService(storageService, variantService);
+        ChatRoomService chatRoomService = mock(ChatRoomService.class);
+        when(chatRoomService.findRoom("live-room")).thenReturn(new ChatRoomResponse());
+
+        janitor = new StorageJanitor(storageService, chunkedUploadService, servingService, chatRoomService);
+        ReflectionTestUtils.setField(janitor, "enabled", true);
+        ReflectionTestUtils.setField(janitor, "graceMs", 3_600_000L);
+        ReflectionTestUtils.setField(janitor, "tempTtlMs", 86_400_000L);
+        ReflectionTestUtils.setField(janitor, "ioOpsPerSecond", 10_000);
+        ReflectionTestUtils.setField(janitor, "maxYieldMs", 0L);
+    }
+
+    @Test
+    void reclaimsDeletedRoomsAndTheBlobsOnlyTheyUsed() throws IOException {
+        StoredFile shared = store("live-room", "picture posted in both rooms");
+        store("dead-room", "picture posted in both rooms");
+        StoredFile onlyDead = store("dead-room", "picture only the deleted room had");
+        Path variant = variantService.variantPath(onlyDead.hash(), ImageVariantService.Variant.THUMB);
+        Files.createDirectories(variant.getParent());
+        Files.writeString(variant, "thumbnail");
+        age(Instant.now().minus(2, ChronoUnit.HOURS));
+
+        ReclaimReport dryRun = janitor.reclaim(true);
+        assertThat(dryRun.getRoomDirectories()).isEqualTo(1);
+        assertThat(dryRun.getReferences()).isEqualTo(2);
+        assertThat(dryRun.getBlobs()).isEqualTo(1);
+        assertThat(dryRun.getVariants()).isEqualTo(1);
+        assertThat(dryRun.getBytesReclaimed()).isEqualTo(onlyDead.size() + "thumbnail".length());
+        assertThat(uploadDir.resolve("dead-room")).exists();
+        assertThat(janitor.getReclaimedBytes(StorageJanitor.Kind.BLOB)).isZero();
+
+        ReclaimReport report = janitor.reclaim(false);
+        assertThat(report).usingRecursiveComparison()
+            .ignoringFields("dryRun", "startedAt", "durationMs", "ioOps")
+            .isEqualTo(dryRun);
+        assertThat(uploadDir.resolve("dead-room")).doesNotExist();
+        assertThat(storageService.blobPath(onlyDead.hash() + ".png")).doesNotExist();
+        assertThat(variant).doesNotExist();
+        assertThat(storageService.blobPath(shared.hash() + ".png")).exists();
+        assertThat(uploadDir.resolve("live-room").resolve(shared.hash() + ".png")).exists();
+        assertThat(janitor.getReclaimedBytes(StorageJanitor.Kind.BLOB)).isEqualTo(onlyDead.size());
+        assertThat(janitor.getLastReport()).isSameAs(report);
+    }
+
+    @Test
+    void leavesRecentFilesAndActiveChunkedUploadsAlone() throws IOException {
+        store("dead-room", "uploaded a moment ago");
+        String uploadId = chunkedUploadService.init("live-room", "alice", "clip.bin", null, 64).uploadId();
+        Path stalePart = uploadDir.resolve(FileStorageService.TEMP_DIR).resolve("crashed.part");
+        Files.writeString(stalePart, "left behind");
+        Instant twoDaysAgo = Instant.now().minus(2, ChronoUnit.DAYS);
+        Files.setLastModifiedTime(stalePart, FileTime.from(twoDaysAgo));
+        Path activePart = uploadDir.resolve(FileStorageService.TEMP_DIR).resolve(uploadId + ChunkedUploadService.PART_SUFFIX);
+        Files.setLastModifiedTime(activePart, FileTime.from(twoDaysAgo));
+
+        ReclaimReport report = janitor.reclaim(false);
+
+        assertThat(report.getRoomDirectories()).isZero();
+        assertThat(report.getBlobs()).isZero();
+        assertThat(report.getTempFiles()).isEqualTo(1);
+        assertThat(stalePart).doesNotExist();
+        assertThat(activePart).exists();
+        assertThat(uploadDir.resolve("dead-room")).exists();
+    }
+
+    @Test
+    void refusesToDeleteWhenDisabledButStillReportsDryRuns() throws IOException {
+        ReflectionTestUtils.setField(janitor, "enabled", false);
+        store("dead-room", "nobody references this");
+        age(Instant.now().minus(2, ChronoUnit.DAYS));
+
+        assertThat(janitor.reclaim(true).getRoomDirectories()).isEqualTo(1);
+        assertThatThrownBy(() -> janitor.reclaim(false)).isInstanceOf(IllegalStateException.class);
+        assertThat(uploadDir.resolve("dead-room")).exists();
+    }
+
+    @Test
+    void requestedRunHappensOnTheJanitorThreadAndBecomesTheLastReport() throws Exception {
+        ReflectionTestUtils.setField(janitor, "intervalMs", 3_600_000L);
+        janitor.start();
+        try {
+            store("dead-room", "nobody references this");
+            age(Instant.now().minus(2, ChronoUnit.DAYS));
+
+            janitor.requestReclaim(true);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (janitor.getLastReport() == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThat(janitor.getLastReport().isDryRun()).isTrue();
+            assertThat(janitor.getLastReport().getRoomDirectories()).isEqualTo(1);
+            assertThat(uploadDir.resolve("dead-room")).exists();
+        } finally {
+            janitor.shutdown();
+        }
+    }
+
+    private StoredFile store(String roomId, String content) {
+        return storageService.store(roomId, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+            "picture.png", "image/png");
+    }
+
+    private void age(Instant modified) throws IOException {
+        try (Stream<Path> paths = Files.walk(uploadDir)) {
+            for (Path path : paths.toList()) {
+                Files.setLastModifiedTime(path, FileTime.from(modified));
+            }
+        }
+    }
+}
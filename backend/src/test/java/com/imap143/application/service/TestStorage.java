@@ -0,0 +1,35 @@
+package com.imap143.application.service;
+
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Path;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+// Upload store wiring shared by the storage tests: small limits so tests can cross them with a few bytes
+public final class TestStorage {
+
+    public static final long MAX_BYTES = 1024L;
+    public static final long MEMORY_THRESHOLD = 16L;
+
+    private TestStorage() {
+    }
+
+    // Variants are not generated; tests that need them use imageVariants
+    public static FileStorageService fileStorage(Path uploadDir) {
+        FileStorageService storageService = new FileStorageService(mock(ImageVariantService.class));
+        ReflectionTestUtils.setField(storageService, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(storageService, "maxBytes", MAX_BYTES);
+        ReflectionTestUtils.setField(storageService, "memoryThreshold", MEMORY_THRESHOLD);
+        storageService.init();
+        return storageService;
+    }
+
+    // Resolves variant paths only; no executor is started, so nothing is generated in the background
+    public static ImageVariantService imageVariants(Path uploadDir) {
+        ImageVariantService variantService = new ImageVariantService();
+        ReflectionTestUtils.setField(variantService, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(variantService, "root", uploadDir.toAbsolutePath().normalize());
+        return variantService;
+    }
+}
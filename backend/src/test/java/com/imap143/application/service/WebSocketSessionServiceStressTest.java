@@ -0,0 +1,143 @@
+package com.imap143.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WebSocketSessionServiceStressTest {
+
+    private static final int THREADS = 32;
+    private static final int SESSIONS_PER_THREAD = 1_000;
+    private static final int USERS = 500;
+    private static final int ROOMS = 50;
+
+    private WebSocketSessionService sessionService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        sessionService = new WebSocketSessionService();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void connectAndDisconnectStormLeavesNoStaleEntries() throws Exception {
+        runStorm((thread, i) -> true);
+
+        assertThat(sessionService.getSessionCount()).isZero();
+        assertThat(sessionService.getUserCount()).isZero();
+        assertThat(sessionService.getRoomCount()).isZero();
+        for (int user = 0; user < USERS; user++) {
+            assertThat(sessionService.hasActiveSession("user-" + user)).isFalse();
+        }
+        for (int room = 0; room < ROOMS; room++) {
+            assertThat(sessionService.getRoomParticipants("room-" + room)).isEmpty();
+        }
+    }
+
+    @Test
+    void indexesAgreeWithSurvivingSessionsAfterStorm() throws Exception {
+        Map<String, Set<String>> survivors = runStorm((thread, i) -> i % 3 != 0);
+
+        Map<String, Set<String>> expectedRoomUsers = new HashMap<>();
+        Set<String> expectedUsers = new HashSet<>();
+        survivors.forEach((sessionId, rooms) -> {
+            String userId = userOf(sessionId);
+            expectedUsers.add(userId);
+            rooms.forEach(roomId -> expectedRoomUsers.computeIfAbsent(roomId, k -> new HashSet<>()).add(userId));
+            assertThat(sessionService.getUserIdBySessionId(sessionId)).isEqualTo(userId);
+        });
+
+        assertThat(sessionService.getSessionCount()).isEqualTo(survivors.size());
+        assertThat(sessionService.getUserCount()).isEqualTo(expectedUsers.size());
+        assertThat(sessionService.getRoomCount()).isEqualTo(expectedRoomUsers.size());
+        for (int room = 0; room < ROOMS; room++) {
+            String roomId = "room-" + room;
+            Set<String> expected = expectedRoomUsers.getOrDefault(roomId, Set.of());
+            assertThat(sessionService.getRoomParticipants(roomId)).containsExactlyInAnyOrderElementsOf(expected);
+            for (int user = 0; user < USERS; user++) {
+                String userId = "user-" + user;
+                assertThat(sessionService.isUserInRoom(roomId, userId)).isEqualTo(expected.contains(userId));
+            }
+        }
+        for (int user = 0; user < USERS; user++) {
+            String userId = "user-" + user;
+            assertThat(sessionService.hasActiveSession(userId)).isEqualTo(expectedUsers.contains(userId));
+        }
+    }
+
+    private interface DisconnectPolicy {
+        boolean disconnects(int thread, int i);
+    }
+
+    // Returns sessionId -> rooms for every session that was left connected
+    private Map<String, Set<String>> runStorm(DisconnectPolicy policy) throws Exception {
+        Map<String, Set<String>> survivors = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < SESSIONS_PER_THREAD; i++) {
+                    String userId = "user-" + random.nextInt(USERS);
+                    String sessionId = userId + "/s-" + thread + "-" + i;
+                    sessionService.initializeSession(sessionId, userId);
+
+                    Set<String> rooms = new HashSet<>();
+                    int joins = 1 + random.nextInt(3);
+                    for (int j = 0; j < joins; j++) {
+                        String roomId = "room-" + random.nextInt(ROOMS);
+                        sessionService.addSession(roomId, sessionId, userId);
+                        rooms.add(roomId);
+                    }
+                    if (random.nextBoolean()) {
+                        String roomId = rooms.iterator().next();
+                        sessionService.leaveRoom(roomId, sessionId);
+                        rooms.remove(roomId);
+                    }
+
+                    if (policy.disconnects(thread, i)) {
+                        sessionService.removeSession(sessionId);
+                    } else {
+                        survivors.put(sessionId, rooms);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        return survivors;
+    }
+
+    private static String userOf(String sessionId) {
+        return sessionId.substring(0, sessionId.indexOf('/'));
+    }
+}
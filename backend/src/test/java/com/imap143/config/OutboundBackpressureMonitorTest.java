@@ -0,0 +1,94 @@
+package com.imap143.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.imap143.application.service.MessageFanout;
+
+class OutboundBackpressureMonitorTest {
+
+    private static final String SESSION_ID = "session-1";
+    private static final int SOFT_LIMIT = 3;
+
+    private OutboundBackpressureMonitor monitor;
+    private WebSocketHandler delegate;
+    private WebSocketHandler decorated;
+    private WebSocketSession meteredSession;
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        monitor = new OutboundBackpressureMonitor();
+        ReflectionTestUtils.setField(monitor, "softLimit", SOFT_LIMIT);
+
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(SESSION_ID);
+        delegate = mock(WebSocketHandler.class);
+        decorated = monitor.decorate(delegate);
+        decorated.afterConnectionEstablished(session);
+
+        ArgumentCaptor<WebSocketSession> captor = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(delegate).afterConnectionEstablished(captor.capture());
+        meteredSession = captor.getValue();
+    }
+
+    @Test
+    void lowPriorityFramesAreDroppedOnlyPastTheSoftLimit() {
+        for (int i = 0; i < SOFT_LIMIT; i++) {
+            assertThat(monitor.preSend(frame(MessageFanout.Priority.LOW), channel)).isNotNull();
+        }
+        assertThat(monitor.getPendingFrames(SESSION_ID)).isEqualTo(SOFT_LIMIT);
+
+        assertThat(monitor.preSend(frame(MessageFanout.Priority.LOW), channel)).isNull();
+        assertThat(monitor.preSend(frame(MessageFanout.Priority.NORMAL), channel)).isNotNull();
+        assertThat(monitor.getStats().getDroppedFrames()).isEqualTo(1);
+        assertThat(monitor.getPendingFrames(SESSION_ID)).isEqualTo(SOFT_LIMIT + 1);
+    }
+
+    @Test
+    void framesReachingTheSocketDrainTheBacklog() throws Exception {
+        for (int i = 0; i < SOFT_LIMIT; i++) {
+            monitor.preSend(frame(MessageFanout.Priority.NORMAL), channel);
+        }
+        meteredSession.sendMessage(new TextMessage("MESSAGE\ndestination:/topic/room.1\n\n{}\u0000"));
+        meteredSession.sendMessage(new TextMessage("\n"));  // heart-beat, not counted
+
+        assertThat(monitor.getPendingFrames(SESSION_ID)).isEqualTo(SOFT_LIMIT - 1);
+        assertThat(monitor.preSend(frame(MessageFanout.Priority.LOW), channel)).isNotNull();
+    }
+
+    @Test
+    void closedSessionsAreForgotten() throws Exception {
+        monitor.preSend(frame(MessageFanout.Priority.NORMAL), channel);
+        decorated.afterConnectionClosed(meteredSession, CloseStatus.SESSION_NOT_RELIABLE);
+
+        assertThat(monitor.getStats().getSessions()).isZero();
+        assertThat(monitor.getStats().getSlowSessionsClosed()).isEqualTo(1);
+        verify(delegate).afterConnectionClosed(any(), any());
+    }
+
+    private static Message<byte[]> frame(MessageFanout.Priority priority) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION_ID);
+        accessor.setDestination("/topic/room.1.participants");
+        accessor.setHeader(MessageFanout.PRIORITY_HEADER, priority);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
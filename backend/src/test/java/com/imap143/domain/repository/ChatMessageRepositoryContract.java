@@ -0,0 +1,122 @@
+package com.imap143.domain.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+
+import com.imap143.domain.entity.ChatMessage;
+
+// Query semantics the services rely on; run against both the MongoDB and the in-memory repository
+abstract class ChatMessageRepositoryContract {
+
+    private final String roomId = "contract-" + UUID.randomUUID();
+    private final String otherRoomId = "contract-" + UUID.randomUUID();
+
+    protected abstract ChatMessageRepository repository();
+
+    @AfterEach
+    void cleanUp() {
+        repository().deleteByRoomId(roomId);
+        repository().deleteByRoomId(otherRoomId);
+    }
+
+    @Test
+    void keysetPagesOrderByTimestampThenId() {
+        // Two messages share a timestamp, so the id breaks the tie
+        List<ChatMessage> messages = insert(roomId, new long[] {1_000, 2_000, 2_000, 3_000});
+
+        List<ChatMessage> latest = repository().findPageBefore(roomId, null, null, 3);
+        assertThat(latest).extracting(ChatMessage::getId)
+            .containsExactly(messages.get(3).getId(), messages.get(2).getId(), messages.get(1).getId());
+
+        ChatMessage edge = messages.get(2);
+        assertThat(repository().findPageBefore(roomId, edge.getTimestamp(), edge.getId(), 10))
+            .extracting(ChatMessage::getId)
+            .containsExactly(messages.get(1).getId(), messages.get(0).getId());
+
+        ChatMessage start = messages.get(1);
+        assertThat(repository().findPageAfter(roomId, start.getTimestamp(), start.getId(), 10))
+            .extracting(ChatMessage::getId)
+            .containsExactly(messages.get(2).getId(), messages.get(3).getId());
+    }
+
+    @Test
+    void timestampQueryIsStrictAndAscending() {
+        List<ChatMessage> messages = insert(roomId, new long[] {1_000, 2_000, 3_000});
+        insert(otherRoomId, new long[] {5_000});
+
+        assertThat(repository().findByRoomIdAndTimestampGreaterThanOrderByTimestampAsc(roomId, 1_000))
+            .extracting(ChatMessage::getId)
+            .containsExactly(messages.get(1).getId(), messages.get(2).getId());
+    }
+
+    @Test
+    void sequenceQueryHonoursPageSize() {
+        insert(roomId, new long[] {1_000, 2_000, 3_000, 4_000});
+
+        assertThat(repository().findByRoomIdAndSequenceGreaterThanOrderBySequenceAsc(roomId, 1, PageRequest.of(0, 2)))
+            .extracting(ChatMessage::getSequence)
+            .containsExactly(2L, 3L);
+        assertThat(repository().findMaxSequenceByRoom()).containsEntry(roomId, 4L);
+    }
+
+    @Test
+    void deleteByRoomLeavesOtherRooms() {
+        insert(roomId, new long[] {1_000, 2_000});
+        insert(otherRoomId, new long[] {1_000});
+
+        repository().deleteByRoomId(roomId);
+
+        assertThat(repository().findPageBefore(roomId, null, null, 10)).isEmpty();
+        assertThat(repository().findPageBefore(otherRoomId, null, null, 10)).hasSize(1);
+    }
+
+    @Test
+    void insertRejectsDuplicateIdsButSaveUpserts() {
+        ChatMessage message = insert(roomId, new long[] {1_000}).get(0);
+
+        assertThatThrownBy(() -> repository().insert(message)).isInstanceOf(DuplicateKeyException.class);
+
+        message.setContent("edited");
+        repository().saveAll(List.of(message));
+        assertThat(repository().findById(message.getId())).get()
+            .extracting(ChatMessage::getContent).isEqualTo("edited");
+    }
+
+    @Test
+    void readsAreDetachedFromTheStore() {
+        ChatMessage message = insert(roomId, new long[] {1_000}).get(0);
+
+        repository().findById(message.getId()).orElseThrow().setContent("changed locally");
+
+        assertThat(repository().findById(message.getId())).get()
+            .extracting(ChatMessage::getContent).isEqualTo("message 1");
+    }
+
+    private List<ChatMessage> insert(String room, long[] timestamps) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < timestamps.length; i++) {
+            ChatMessage message = new ChatMessage();
+            // ObjectIds from one process increase, so insertion order is id order
+            message.setId(new ObjectId().toHexString());
+            message.setRoomId(room);
+            message.setSenderId("user");
+            message.setContent("message " + (i + 1));
+            message.setType(ChatMessage.MessageType.CHAT);
+            message.setTimestamp(timestamps[i]);
+            message.setSequence(i + 1);
+            messages.add(message);
+        }
+        repository().insert(messages);
+        return messages;
+    }
+}
@@ -0,0 +1,96 @@
+package com.imap143.domain.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.imap143.domain.entity.ChatRoom;
+
+// Participant containment and write-behind semantics; run against both the MongoDB and the in-memory repository
+abstract class ChatRoomRepositoryContract {
+
+    private final String roomId = "contract-" + UUID.randomUUID();
+    private final String user = "user-" + UUID.randomUUID();
+    private final String otherUser = "user-" + UUID.randomUUID();
+
+    protected abstract ChatRoomRepository repository();
+
+    @AfterEach
+    void cleanUp() {
+        repository().deleteById(roomId);
+    }
+
+    @Test
+    void roundTripDropsTransientVersion() {
+        ChatRoom room = room(user);
+        room.setParticipantVersion(7);
+        repository().save(room);
+
+        ChatRoom stored = repository().findById(roomId).orElseThrow();
+        assertThat(stored.getActiveParticipants()).containsExactly(user);
+        assertThat(stored.getParticipantVersion()).isZero();
+    }
+
+    @Test
+    void findsRoomsByParticipantContainment() {
+        repository().save(room(user));
+        repository().applyParticipantChanges(List.of(
+            ParticipantChange.join(roomId, otherUser),
+            ParticipantChange.deactivate(roomId, otherUser)));
+
+        assertThat(repository().findByParticipantsContaining(otherUser)).extracting(ChatRoom::getId).contains(roomId);
+        assertThat(repository().findByActiveParticipantsContaining(otherUser)).extracting(ChatRoom::getId).doesNotContain(roomId);
+        assertThat(repository().findByActiveParticipantsContaining(user)).extracting(ChatRoom::getId).contains(roomId);
+    }
+
+    @Test
+    void joinIsIdempotentAndLeavePullsBothLists() {
+        repository().save(room(user));
+        repository().applyParticipantChanges(List.of(
+            ParticipantChange.join(roomId, otherUser),
+            ParticipantChange.join(roomId, otherUser)));
+
+        ChatRoom joined = repository().findById(roomId).orElseThrow();
+        assertThat(joined.getParticipants()).containsExactly(user, otherUser);
+        assertThat(joined.getActiveParticipants()).containsExactly(user, otherUser);
+
+        repository().applyParticipantChanges(List.of(ParticipantChange.leave(roomId, otherUser)));
+        ChatRoom left = repository().findById(roomId).orElseThrow();
+        assertThat(left.getParticipants()).containsExactly(user);
+        assertThat(left.getActiveParticipants()).containsExactly(user);
+    }
+
+    @Test
+    void deactivatingLastParticipantDeletesRoom() {
+        repository().save(room(user));
+
+        repository().applyParticipantChanges(List.of(ParticipantChange.deactivate(roomId, user)));
+
+        assertThat(repository().existsById(roomId)).isFalse();
+    }
+
+    @Test
+    void changesToMissingRoomsAreIgnored() {
+        repository().applyParticipantChanges(List.of(
+            ParticipantChange.join(roomId, user),
+            ParticipantChange.delete(roomId)));
+
+        assertThat(repository().existsById(roomId)).isFalse();
+    }
+
+    private ChatRoom room(String creator) {
+        ChatRoom room = new ChatRoom();
+        room.setId(roomId);
+        room.setName("contract");
+        room.setCreatedBy(creator);
+        room.setCreatedAt(System.currentTimeMillis());
+        room.setParticipants(new ArrayList<>(List.of(creator)));
+        room.setActiveParticipants(new ArrayList<>(List.of(creator)));
+        return room;
+    }
+}
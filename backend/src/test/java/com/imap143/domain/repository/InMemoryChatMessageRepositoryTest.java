@@ -0,0 +1,13 @@
+package com.imap143.domain.repository;
+
+import com.imap143.domain.repository.inmemory.InMemoryChatMessageRepository;
+
+class InMemoryChatMessageRepositoryTest extends ChatMessageRepositoryContract {
+
+    private final ChatMessageRepository repository = new InMemoryChatMessageRepository();
+
+    @Override
+    protected ChatMessageRepository repository() {
+        return repository;
+    }
+}
@@ -0,0 +1,13 @@
+package com.imap143.domain.repository;
+
+import com.imap143.domain.repository.inmemory.InMemoryChatRoomRepository;
+
+class InMemoryChatRoomRepositoryTest extends ChatRoomRepositoryContract {
+
+    private final ChatRoomRepository repository = new InMemoryChatRoomRepository();
+
+    @Override
+    protected ChatRoomRepository repository() {
+        return repository;
+    }
+}
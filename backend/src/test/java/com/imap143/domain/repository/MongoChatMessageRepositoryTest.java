@@ -0,0 +1,21 @@
+package com.imap143.domain.repository;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.test.context.TestPropertySource;
+
+// Needs a local MongoDB: MONGO_CONTRACT_TESTS=true ./gradlew test
+@DataMongoTest
+@TestPropertySource(properties = "spring.data.mongodb.database=minizoom_contract")
+@EnabledIfEnvironmentVariable(named = "MONGO_CONTRACT_TESTS", matches = "true")
+class MongoChatMessageRepositoryTest extends ChatMessageRepositoryContract {
+
+    @Autowired
+    private ChatMessageRepository repository;
+
+    @Override
+    protected ChatMessageRepository repository() {
+        return repository;
+    }
+}
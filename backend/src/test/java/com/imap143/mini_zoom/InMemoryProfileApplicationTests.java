@@ -0,0 +1,32 @@
+package com.imap143.mini_zoom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.imap143.domain.repository.ChatMessageRepository;
+import com.imap143.domain.repository.ChatRoomRepository;
+import com.imap143.domain.repository.inmemory.InMemoryChatMessageRepository;
+import com.imap143.domain.repository.inmemory.InMemoryChatRoomRepository;
+
+// Boots without a MongoDB server
+@SpringBootTest
+@ActiveProfiles("inmemory")
+class InMemoryProfileApplicationTests {
+
+	@Autowired
+	private ChatMessageRepository chatMessageRepository;
+
+	@Autowired
+	private ChatRoomRepository chatRoomRepository;
+
+	@Test
+	void contextLoadsWithInMemoryRepositories() {
+		assertThat(chatMessageRepository).isInstanceOf(InMemoryChatMessageRepository.class);
+		assertThat(chatRoomRepository).isInstanceOf(InMemoryChatRoomRepository.class);
+	}
+
+}
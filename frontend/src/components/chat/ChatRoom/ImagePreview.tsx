@@ -12,12 +12,14 @@ import DownloadIcon from "@mui/icons-material/Download";
 interface ImagePreviewProps {
   open: boolean;
   imageUrl: string;
+  displayUrl?: string;
   onClose: () => void;
 }
 
 const ImagePreview: React.FC<ImagePreviewProps> = ({
   open,
   imageUrl,
+  displayUrl,
   onClose,
 }) => {
   const handleDownload = async () => {
@@ -56,7 +58,7 @@ const ImagePreview: React.FC<ImagePreviewProps> = ({
       </DialogActions>
       <DialogContent sx={{ p: 0 }}>
         <img
-          src={imageUrl}
+          src={displayUrl ?? imageUrl}
           alt="preview"
           style={{
             width: "100%",
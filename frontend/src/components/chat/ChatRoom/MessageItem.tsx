@@ -64,7 +64,7 @@ const MessageItem: React.FC<MessageItemProps> = ({ message, userId }) => {
           >
             {message.type === "IMAGE" ? (
               <img
-                src={getFullImageUrl(message.imageUrl!)}
+                src={getFullImageUrl(message.thumbnailUrl ?? message.imageUrl!)}
                 alt="uploaded"
                 style={{
                   maxWidth: "100%",
@@ -84,6 +84,7 @@ const MessageItem: React.FC<MessageItemProps> = ({ message, userId }) => {
         <ImagePreview
           open={isPreviewOpen}
           imageUrl={getFullImageUrl(message.imageUrl!)}
+          displayUrl={getFullImageUrl(message.mediumUrl ?? message.imageUrl!)}
           onClose={() => setIsPreviewOpen(false)}
         />
       )}
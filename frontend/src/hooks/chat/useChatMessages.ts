@@ -1,5 +1,6 @@
 import { useState, useCallback, useRef, useEffect } from "react";
 import { useWebSocket } from "../useWebSocket";
+import { ParticipantEvent } from "../../types/ParticipantEvent";
 
 interface UseChatMessagesProps {
   roomId: string;
@@ -15,7 +16,7 @@ export const useChatMessages = ({
   webRTCHandlers,
 }: UseChatMessagesProps) => {
   const [messages, setMessages] = useState<any[]>([]);
-  const [_, setParticipants] = useState<string[]>([]);
+  const [participants, setParticipants] = useState<string[]>([]);
   const webRTCHandlersRef = useRef(webRTCHandlers);
   const joinTimeRef = useRef<{ [key: string]: number }>({});
   const pendingOffersRef = useRef<Set<string>>(new Set());
@@ -34,34 +35,43 @@ export const useChatMessages = ({
     [roomId]
   );
 
-  const handleSignalReceived = useCallback(
-    (data: any) => {
-      const { type, senderId } = data;
+  // Offers to a peer once, debounced so a repeated roster cannot start a second negotiation
+  const schedulePeerOffer = useCallback((peerId: string) => {
+    const lastJoinTime = joinTimeRef.current[peerId];
+    const currentTime = Date.now();
 
-      if (type === "JOIN") {
-        const lastJoinTime = joinTimeRef.current[senderId];
-        const currentTime = Date.now();
+    if (lastJoinTime && currentTime - lastJoinTime < 2000) {
+      console.log("[useChatMessages] Ignoring duplicate peer:", peerId);
+      return;
+    }
 
-        if (lastJoinTime && currentTime - lastJoinTime < 2000) {
-          console.log("[useChatMessages] Ignoring duplicate JOIN signal");
-          return;
-        }
+    if (pendingOffersRef.current.has(peerId)) {
+      console.log("[useChatMessages] Offer already pending for:", peerId);
+      return;
+    }
 
-        if (pendingOffersRef.current.has(senderId)) {
-          console.log("[useChatMessages] Offer already pending for:", senderId);
-          return;
-        }
+    joinTimeRef.current[peerId] = currentTime;
+    pendingOffersRef.current.add(peerId);
 
-        joinTimeRef.current[senderId] = currentTime;
-        pendingOffersRef.current.add(senderId);
+    setTimeout(() => {
+      if (webRTCHandlersRef.current) {
+        console.log("[useChatMessages] Creating offer for:", peerId);
+        webRTCHandlersRef.current.createOffer(peerId);
+      }
+      pendingOffersRef.current.delete(peerId);
+    }, 1000);
+  }, []);
 
-        setTimeout(() => {
-          if (webRTCHandlersRef.current) {
-            console.log("[useChatMessages] Creating offer for:", senderId);
-            webRTCHandlersRef.current.createOffer(senderId);
-          }
-          pendingOffersRef.current.delete(senderId);
-        }, 1000);
+  const handleSignalReceived = useCallback(
+    (data: any) => {
+      const { type, senderId } = data;
+
+      // The joiner offers to every peer on its roster; existing peers answer
+      if (type === "ROSTER") {
+        (data.signal?.peers ?? []).forEach((peerId: string) =>
+          schedulePeerOffer(peerId)
+        );
+        return;
       }
       if (!webRTCHandlersRef.current) {
         console.warn("WebRTC handlers not initialized");
@@ -90,9 +100,20 @@ export const useChatMessages = ({
             handleIceCandidate(data.signal, senderId);
           }
           break;
+        case "ICE_CANDIDATE_BATCH":
+          if (Array.isArray(data.signal)) {
+            console.log(
+              `Handling ${data.signal.length} ICE candidates from:`,
+              senderId
+            );
+            data.signal.forEach((candidate: RTCIceCandidateInit) =>
+              handleIceCandidate(candidate, senderId)
+            );
+          }
+          break;
       }
     },
-    [userId]
+    [userId, schedulePeerOffer]
   );
 
   const fetchParticipants = useCallback(async () => {
@@ -128,12 +149,32 @@ export const useChatMessages = ({
     [fetchParticipants]
   );
 
+  const handleParticipantEvent = useCallback((event: ParticipantEvent) => {
+    switch (event.type) {
+      case "SNAPSHOT":
+        setParticipants(event.participants ?? []);
+        break;
+      case "JOINED":
+        setParticipants((prev) => [
+          ...prev,
+          ...(event.userIds ?? []).filter((id) => !prev.includes(id)),
+        ]);
+        break;
+      case "LEFT":
+        setParticipants((prev) =>
+          prev.filter((id) => !(event.userIds ?? []).includes(id))
+        );
+        break;
+    }
+  }, []);
+
   const { sendMessage } = useWebSocket(
     userId,
     roomId,
     handleMessageReceived,
     handleSignalReceived,
-    handleConnectionStatus
+    handleConnectionStatus,
+    handleParticipantEvent
   );
 
   const addMessage = useCallback(
@@ -153,6 +194,7 @@ export const useChatMessages = ({
 
   return {
     messages,
+    participants,
     addMessage,
     sendMessage,
   };
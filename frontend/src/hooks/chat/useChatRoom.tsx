@@ -2,7 +2,6 @@ import { useState, useCallback, useRef, useEffect, useMemo } from "react";
 import { useWebRTC } from "../useWebRTC";
 import { useChatMessages } from "./useChatMessages";
 import { useFileUpload } from "./useFileUpload";
-import { ParticipantUpdateMessage } from "../../types/ParticipantUpdateMessage";
 
 interface UseChatRoomProps {
   roomId: string;
@@ -80,7 +79,11 @@ export const useChatRoom = ({ roomId, userId, userName }: UseChatRoomProps) => {
     }, {} as { [key: string]: MediaStream });
   }, [streams]);
 
-  const { messages, sendMessage } = useChatMessages({
+  const {
+    messages,
+    participants: participantIds,
+    sendMessage,
+  } = useChatMessages({
     roomId,
     userId,
     userName,
@@ -209,9 +212,9 @@ export const useChatRoom = ({ roomId, userId, userName }: UseChatRoomProps) => {
   }, [streams]);
 
   const handleParticipantUpdate = useCallback(
-    (data: ParticipantUpdateMessage) => {
+    (participantList: string[]) => {
       setParticipants(
-        data.participants.map((participantId: string) => ({
+        participantList.map((participantId: string) => ({
           id: participantId,
           name: participantId === userId ? userName : `User ${participantId}`,
           isActive: true,
@@ -221,6 +224,10 @@ export const useChatRoom = ({ roomId, userId, userName }: UseChatRoomProps) => {
     [userId, userName]
   );
 
+  useEffect(() => {
+    handleParticipantUpdate(participantIds);
+  }, [participantIds, handleParticipantUpdate]);
+
   const handleStreamUpdate = useCallback(
     (peerId: string, stream: MediaStream) => {
       setStreams((prev) => ({
@@ -1,28 +1,112 @@
 import { useState, useCallback } from "react";
 
+const API_BASE = "http://localhost:8080/api/upload";
+// Files above this go through the resumable chunked API instead of a single request
+const CHUNKED_THRESHOLD = 8 * 1024 * 1024;
+const PARALLEL_CHUNKS = 3;
+const MAX_ATTEMPTS = 5;
+
+interface UploadStatus {
+  uploadId: string;
+  chunkSize: number;
+  missingChunks: number[];
+}
+
+const delay = (ms: number) => new Promise((resolve) => setTimeout(resolve, ms));
+
 export const useFileUpload = (userId: string) => {
   const [isLoading, setIsLoading] = useState(false);
 
-  const uploadFile = useCallback(
+  const uploadStream = useCallback(
     async (file: File, roomId: string) => {
-      try {
-        setIsLoading(true);
-        const formData = new FormData();
-        formData.append("file", file);
-        formData.append("roomId", roomId);
-
-        const response = await fetch("http://localhost:8080/api/upload", {
+      // Raw body upload: the server hashes it while writing and reuses identical files
+      const response = await fetch(
+        `${API_BASE}/stream?roomId=${encodeURIComponent(roomId)}`,
+        {
           method: "POST",
           headers: {
             "X-User-Id": userId,
+            "X-File-Name": encodeURIComponent(file.name),
+            "Content-Type": file.type || "application/octet-stream",
           },
-          body: formData,
+          body: file,
+        }
+      );
+
+      if (!response.ok) throw new Error("Upload failed");
+
+      const { imageUrl } = await response.json();
+      return imageUrl;
+    },
+    [userId]
+  );
+
+  const uploadChunked = useCallback(
+    async (file: File, roomId: string) => {
+      const init = await fetch(`${API_BASE}/chunked`, {
+        method: "POST",
+        headers: { "X-User-Id": userId, "Content-Type": "application/json" },
+        body: JSON.stringify({
+          roomId,
+          fileName: file.name,
+          contentType: file.type || "application/octet-stream",
+          size: file.size,
+        }),
+      });
+      if (!init.ok) throw new Error("Upload failed");
+      const { uploadId, chunkSize }: UploadStatus = await init.json();
+      const uploadUrl = `${API_BASE}/chunked/${uploadId}`;
+
+      const putChunk = async (index: number) => {
+        const offset = index * chunkSize;
+        const response = await fetch(`${uploadUrl}?offset=${offset}`, {
+          method: "PUT",
+          headers: { "X-User-Id": userId, "Content-Type": "application/octet-stream" },
+          body: file.slice(offset, offset + chunkSize),
         });
+        if (!response.ok) throw new Error(`Chunk ${index} failed`);
+      };
+
+      // After a dropped connection, ask the server which chunks it still needs and send only those
+      for (let attempt = 1; ; attempt++) {
+        try {
+          const status = await fetch(uploadUrl, { headers: { "X-User-Id": userId } });
+          if (!status.ok) throw new Error("Upload status failed");
+          const queue = [...((await status.json()) as UploadStatus).missingChunks];
+          const workers = Array.from({ length: PARALLEL_CHUNKS }, async () => {
+            for (let index = queue.shift(); index !== undefined; index = queue.shift()) {
+              await putChunk(index);
+            }
+          });
+          await Promise.all(workers);
 
-        if (!response.ok) throw new Error("Upload failed");
+          const complete = await fetch(`${uploadUrl}/complete`, {
+            method: "POST",
+            headers: { "X-User-Id": userId },
+          });
+          if (complete.status === 409) throw new Error("Chunks still missing");
+          if (!complete.ok) throw new Error("Upload failed");
+          const { imageUrl } = await complete.json();
+          return imageUrl;
+        } catch (error) {
+          if (attempt >= MAX_ATTEMPTS) {
+            fetch(uploadUrl, { method: "DELETE", headers: { "X-User-Id": userId } }).catch(() => {});
+            throw error;
+          }
+          await delay(1000 * attempt);
+        }
+      }
+    },
+    [userId]
+  );
 
-        const { imageUrl } = await response.json();
-        return imageUrl;
+  const uploadFile = useCallback(
+    async (file: File, roomId: string) => {
+      try {
+        setIsLoading(true);
+        return file.size > CHUNKED_THRESHOLD
+          ? await uploadChunked(file, roomId)
+          : await uploadStream(file, roomId);
       } catch (error) {
         console.error("Image upload failed:", error);
         throw error;
@@ -30,7 +114,7 @@ export const useFileUpload = (userId: string) => {
         setIsLoading(false);
       }
     },
-    [userId]
+    [uploadChunked, uploadStream]
   );
 
   return {
@@ -1,6 +1,7 @@
 import { useEffect, useRef, useCallback, useState } from "react";
 import { Client, StompSubscription } from "@stomp/stompjs";
 import SockJS from "sockjs-client";
+import { ParticipantEvent } from "../types/ParticipantEvent";
 
 interface WebSocketMessage<T = any> {
   type: string;
@@ -20,7 +21,8 @@ export const useWebSocket = (
   roomId: string,
   onMessageReceived?: (data: any) => void,
   onSignalReceived?: (data: any) => void,
-  onConnectionStatusChange?: (status: boolean) => void
+  onConnectionStatusChange?: (status: boolean) => void,
+  onParticipantEvent?: (event: ParticipantEvent) => void
 ): WebSocketHook => {
   const [isConnected, setIsConnected] = useState(false);
   const client = useRef<Client | null>(null);
@@ -29,6 +31,35 @@ export const useWebSocket = (
   const isSubscribing = useRef<boolean>(false);
   const connectionAttempts = useRef<number>(0);
   const isInitialConnection = useRef<boolean>(true);
+  const participantVersion = useRef<number>(-1);
+
+  // Applies deltas in version order; a gap asks the server for a fresh snapshot
+  const handleParticipantEvent = useCallback(
+    (event: ParticipantEvent) => {
+      if (event.roomId !== roomId) return;
+
+      if (event.type === "SNAPSHOT") {
+        participantVersion.current = event.version;
+        onParticipantEvent?.(event);
+        return;
+      }
+      if (event.version <= participantVersion.current) return;
+      if (event.version !== participantVersion.current + 1) {
+        client.current?.publish({
+          destination: "/app/participants.sync",
+          body: JSON.stringify({
+            roomId,
+            userId,
+            version: participantVersion.current,
+          }),
+        });
+        return;
+      }
+      participantVersion.current = event.version;
+      onParticipantEvent?.(event);
+    },
+    [roomId, userId, onParticipantEvent]
+  );
 
   const subscribe = useCallback(() => {
     if (!client.current?.connected || isSubscribing.current) return;
@@ -63,6 +94,17 @@ export const useWebSocket = (
         }
       );
 
+      // The snapshot queue must be subscribed before the topic, whose subscription triggers the snapshot
+      participantVersion.current = -1;
+      subscriptions.current.participantSnapshot = client.current.subscribe(
+        `/queue/participants.${userId}`,
+        (message) => handleParticipantEvent(JSON.parse(message.body))
+      );
+      subscriptions.current.participants = client.current.subscribe(
+        `/topic/room.${roomId}.participants`,
+        (message) => handleParticipantEvent(JSON.parse(message.body))
+      );
+
       if (isInitialConnection.current) {
         onConnectionStatusChange?.(true);
         isInitialConnection.current = false;
@@ -80,6 +122,7 @@ export const useWebSocket = (
     onMessageReceived,
     onSignalReceived,
     onConnectionStatusChange,
+    handleParticipantEvent,
   ]);
 
   const connect = useCallback(() => {
@@ -92,6 +135,8 @@ export const useWebSocket = (
         webSocketFactory: () => new SockJS("http://localhost:8080/ws"),
         connectHeaders: {
           "X-User-Id": userId,
+          // Lets the server coalesce ICE candidates into ICE_CANDIDATE_BATCH signals
+          "X-Capabilities": "ice-batch",
         },
         onConnect: () => {
           console.log("WebSocket connected");
@@ -6,6 +6,8 @@ export enum MessageType {
   OFFER = "OFFER",
   ANSWER = "ANSWER",
   ICE_CANDIDATE = "ICE_CANDIDATE",
+  ICE_CANDIDATE_BATCH = "ICE_CANDIDATE_BATCH",
+  ROSTER = "ROSTER",
 }
 
 export interface ChatMessage {
@@ -16,5 +18,8 @@ export interface ChatMessage {
   content: string;
   type: MessageType;
   imageUrl?: string;
+  thumbnailUrl?: string; // Resized variants; the server serves the original until they are generated
+  mediumUrl?: string;
   timestamp: number;
+  sequence?: number;
 }
@@ -0,0 +1,9 @@
+export type ParticipantEventType = "SNAPSHOT" | "JOINED" | "LEFT";
+
+export interface ParticipantEvent {
+  roomId: string;
+  type: ParticipantEventType;
+  version: number;
+  userIds?: string[];
+  participants?: string[];
+}
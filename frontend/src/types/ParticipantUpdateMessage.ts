@@ -1,4 +0,0 @@
-export interface ParticipantUpdateMessage {
-  roomId: string;
-  participants: string[];
-}